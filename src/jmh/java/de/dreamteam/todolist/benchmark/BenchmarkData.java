@@ -0,0 +1,90 @@
+package de.dreamteam.todolist.benchmark;
+
+import de.dreamteam.todolist.ToDoListApplication;
+import de.dreamteam.todolist.entity.*;
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startet die Anwendung mit der In-Memory-Datenbank aus den Test-Properties und legt einen Benutzer
+ * mit Projekten, ToDos und Lehrplan-Einträgen an.
+ */
+final class BenchmarkData {
+
+    static final int PROJECTS = 10;
+    private static final String USERNAME = "benchmark-user";
+
+    private BenchmarkData() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ToDoListApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN", "logging.level.org.springframework.security=WARN")
+                .run();
+    }
+
+    // Verteilt toDos gleichmäßig auf die Projekte; jedes zweite ToDo steht zusätzlich im Lehrplan
+    static AuthenticatedUser seed(ConfigurableApplicationContext context, int toDos) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ProjectRepository projectRepository = context.getBean(ProjectRepository.class);
+        ToDoRepository toDoRepository = context.getBean(ToDoRepository.class);
+        CurriculumRepository curriculumRepository = context.getBean(CurriculumRepository.class);
+        ToDoCurriculumRepository toDoCurriculumRepository = context.getBean(ToDoCurriculumRepository.class);
+
+        User user = context.getBean(TransactionTemplate.class).execute(_ -> {
+            User owner = userRepository.save(User.builder()
+                    .firstName("Bench")
+                    .lastName("Mark")
+                    .username(USERNAME)
+                    .email(USERNAME + "@example.com")
+                    .password("unused")
+                    .enabled(true)
+                    .build());
+            Curriculum curriculum = curriculumRepository.save(Curriculum.builder()
+                    .title("Lehrplan")
+                    .user(owner)
+                    .build());
+            List<Project> projects = new ArrayList<>();
+            for (int i = 0; i < PROJECTS; i++) {
+                projects.add(projectRepository.save(Project.builder()
+                        .title("Projekt " + i)
+                        .description("Beschreibung " + i)
+                        .owner(owner)
+                        .build()));
+            }
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < toDos; i++) {
+                ToDo toDo = toDoRepository.save(ToDo.builder()
+                        .title("Aufgabe " + i)
+                        .description("Beschreibung der Aufgabe " + i)
+                        .creator(USERNAME)
+                        .startDate(today)
+                        .endDate(today.plusDays(i % 30))
+                        .status(ToDoStatus.values()[i % ToDoStatus.values().length])
+                        .project(projects.get(i % PROJECTS))
+                        .userList(new ArrayList<>(List.of(owner)))
+                        .build());
+                if (i % 2 == 0) {
+                    toDoCurriculumRepository.save(ToDoCurriculum.builder()
+                            .toDo(toDo)
+                            .curriculum(curriculum)
+                            .startDate(toDo.getStartDate())
+                            .endDate(toDo.getEndDate())
+                            .build());
+                }
+            }
+            return owner;
+        });
+        return new AuthenticatedUser(user.getId(), user.getUsername(), "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
@@ -0,0 +1,38 @@
+package de.dreamteam.todolist.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// Dauer eines BCrypt-Hashs je Kostenfaktor, als Grundlage für app.security.bcrypt.strength und die Hash-Threads
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncodingBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String encoded;
+
+    @Setup
+    public void createEncoder() {
+        encoder = new BCryptPasswordEncoder(strength);
+        encoded = encoder.encode("Benchmark123");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("Benchmark123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("Benchmark123", encoded);
+    }
+}
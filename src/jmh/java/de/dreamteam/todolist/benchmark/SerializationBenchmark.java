@@ -0,0 +1,66 @@
+package de.dreamteam.todolist.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.dreamteam.todolist.controller.ProjectRestController.ProjectWithTasksDto;
+import de.dreamteam.todolist.controller.ProjectRestController.TaskDto;
+import de.dreamteam.todolist.controller.payload.UserTodoPayload;
+import de.dreamteam.todolist.model.ToDoStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON-Serialisierung der Listen, die getAllToDos und getAllProjects zurückgeben, ohne Datenbank
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int toDos;
+
+    // Wie der ObjectMapper von Spring Boot, u.a. mit Unterstützung für java.time
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<UserTodoPayload> todoPayloads;
+    private List<ProjectWithTasksDto> projectDtos;
+
+    @Setup
+    public void createPayloads() {
+        LocalDate today = LocalDate.now();
+        todoPayloads = new ArrayList<>(toDos);
+        List<List<TaskDto>> tasksByProject = new ArrayList<>();
+        for (int p = 0; p < BenchmarkData.PROJECTS; p++) {
+            tasksByProject.add(new ArrayList<>());
+        }
+        for (int i = 0; i < toDos; i++) {
+            long projectId = i % BenchmarkData.PROJECTS;
+            todoPayloads.add(new UserTodoPayload((long) i, "Aufgabe " + i, "benchmark-user",
+                    "Beschreibung der Aufgabe " + i, today, today.plusDays(i % 30),
+                    ToDoStatus.values()[i % ToDoStatus.values().length], projectId,
+                    i % 2 == 0 ? List.of(1L) : List.of()));
+            tasksByProject.get((int) projectId).add(new TaskDto((long) i, "Aufgabe " + i, today, today.plusDays(i % 30)));
+        }
+        projectDtos = new ArrayList<>();
+        for (int p = 0; p < BenchmarkData.PROJECTS; p++) {
+            projectDtos.add(new ProjectWithTasksDto((long) p, "Projekt " + p, "Beschreibung " + p, tasksByProject.get(p)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeToDos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todoPayloads);
+    }
+
+    @Benchmark
+    public byte[] serializeProjects() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(projectDtos);
+    }
+}
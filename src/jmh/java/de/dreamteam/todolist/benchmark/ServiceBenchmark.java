@@ -0,0 +1,148 @@
+package de.dreamteam.todolist.benchmark;
+
+import de.dreamteam.todolist.controller.ProjectRestController;
+import de.dreamteam.todolist.controller.payload.*;
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import de.dreamteam.todolist.model.ToDoOperationType;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.ToDoRepository;
+import de.dreamteam.todolist.service.ToDoSearchService;
+import de.dreamteam.todolist.service.ToDoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Lesepfade pro Anfrage gegen die In-Memory-Datenbank, inklusive Abfragen, Mapping und ETag, sowie
+// das Anlegen von ToDos per Batch im Vergleich zu einzelnen Aufrufen
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    // Anzahl der ToDos pro Batch bzw. der Einzelaufrufe pro Messung
+    private static final int OPERATIONS = 50;
+
+    @Param({"100", "1000"})
+    public int toDos;
+
+    private ConfigurableApplicationContext context;
+    private ToDoService toDoService;
+    private ProjectRestController projectRestController;
+    private AuthenticatedUser principal;
+    private NewToDoPayload newToDo;
+    private ToDoBatchPayload batch;
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkData.start();
+        principal = BenchmarkData.seed(context, toDos);
+        toDoService = context.getBean(ToDoService.class);
+        projectRestController = context.getBean(ProjectRestController.class);
+
+        LocalDate today = LocalDate.now();
+        newToDo = new NewToDoPayload("Neue Aufgabe", "Beschreibung der neuen Aufgabe", today, today.plusDays(7),
+                ToDoStatus.TODO, null, null);
+        List<ToDoOperationPayload> operations = new ArrayList<>(OPERATIONS);
+        for (int i = 0; i < OPERATIONS; i++) {
+            operations.add(new ToDoOperationPayload(ToDoOperationType.CREATE, null, newToDo, null, null));
+        }
+        batch = new ToDoBatchPayload(operations);
+    }
+
+    // Die Anmeldung gilt für die ganze Iteration, die Anfrage bindet jede Benchmark-Methode selbst
+    @Setup(Level.Iteration)
+    public void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void unbindRequest() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // Entfernt die angelegten ToDos wieder, damit die Datenmenge über die Iterationen gleich bleibt
+    @TearDown(Level.Iteration)
+    public void deleteCreatedToDos() {
+        if (createdIds.isEmpty()) {
+            return;
+        }
+        ToDoSearchService toDoSearchService = context.getBean(ToDoSearchService.class);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(_ -> {
+            context.getBean(ToDoRepository.class).deleteAllById(createdIds);
+            createdIds.forEach(toDoSearchService::remove);
+        });
+        createdIds.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserTodoPayload> getAllToDos() {
+        bindRequest();
+        return toDoService.getAllToDos();
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> getAllProjects() {
+        return projectRestController.getAllProjects(false, Locale.GERMAN,
+                new ServletWebRequest(bindRequest(), new MockHttpServletResponse()));
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> getAllProjectsSummary() {
+        return projectRestController.getAllProjects(true, Locale.GERMAN,
+                new ServletWebRequest(bindRequest(), new MockHttpServletResponse()));
+    }
+
+    // Ergebnis je ToDo: eine Transaktion mit JDBC-Batching gegen eine Transaktion pro ToDo
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public ToDoBatchResultPayload createToDosBatch() {
+        bindRequest();
+        ToDoBatchResultPayload result = toDoService.applyBatch(batch);
+        result.results().forEach(operation -> createdIds.add(operation.id()));
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public List<Long> createToDosSingle() {
+        for (int i = 0; i < OPERATIONS; i++) {
+            bindRequest();
+            createdIds.add(toDoService.createToDo(newToDo).getId());
+        }
+        return createdIds;
+    }
+
+    // Jeder Aufruf ist eine eigene Anfrage; sonst liefert das request-scoped CurrentUser ab dem zweiten
+    // Aufruf den zwischengespeicherten Benutzer und die Benutzerabfrage fehlt in der Messung
+    private MockHttpServletRequest bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+}
@@ -0,0 +1,24 @@
+package de.dreamteam.todolist.benchmark;
+
+import de.dreamteam.todolist.service.TokenService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Erzeugung der Einmal-Tokens; SecureRandom kann je nach Plattform blockieren
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBenchmark {
+
+    // generateToken braucht kein Repository
+    private final TokenService tokenService = new TokenService(null);
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken();
+    }
+}
@@ -0,0 +1,187 @@
+package de.dreamteam.todolist.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lasttest mit geschlossener Schleife gegen eine lokal gestartete Anwendung: jeder virtuelle Benutzer
+ * schickt die nächste Anfrage erst, wenn die vorige beantwortet ist. Start mit
+ * {@code mvn -Ploadtest verify -Dload.users=50 -Dload.duration=PT5M}.
+ *
+ * <p>Die Anwendung sollte mit RATE_LIMIT_ENABLED=false und EMAIL_TRANSPORT=log laufen, sonst bremst der
+ * Login-Ratenbegrenzer alle Benutzer von derselben IP aus. Die Konten kommen aus dem Profil datagen
+ * (load-user-&lt;id&gt;, Passwort LoadTest123); wegen maximumSessions(1) braucht jeder virtuelle Benutzer
+ * ein eigenes Konto.
+ *
+ * <p>Ergebnis: Durchsatz und Perzentile je Szenario auf der Konsole und in report.txt, dazu die
+ * vollständige HDR-Verteilung je Szenario als .hgrm-Datei im Verzeichnis load.report-dir.
+ */
+public final class LoadDriver {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final URI baseUri = URI.create(property("load.base-url", "http://localhost:8080"));
+    private final int users = Integer.parseInt(property("load.users", "20"));
+    private final String userTemplate = property("load.user-template", "load-user-%d");
+    private final long firstUser = Long.parseLong(property("load.first-user", "1"));
+    private final String password = property("load.password", "LoadTest123");
+    private final Duration warmup = Duration.parse(property("load.warmup", "PT30S"));
+    private final Duration duration = Duration.parse(property("load.duration", "PT2M"));
+    private final Duration thinkTime = Duration.parse(property("load.think-time", "PT0S"));
+    private final Duration timeout = Duration.parse(property("load.timeout", "PT10S"));
+    private final Map<Scenario, Integer> weights = Scenario.weights(System.getProperty("load.weights"));
+    private final Path reportDir = Path.of(property("load.report-dir", "target/loadtest"));
+
+    private final Map<Scenario, Recorder> recorders = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, LongAdder> errors = new EnumMap<>(Scenario.class);
+    private volatile boolean running = true;
+
+    private LoadDriver() {
+        for (Scenario scenario : Scenario.values()) {
+            recorders.put(scenario, new Recorder(3));
+            errors.put(scenario, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadDriver().run();
+    }
+
+    private void run() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        System.out.printf("Logging in %d virtual users against %s%n", users, baseUri);
+        List<VirtualUser> virtualUsers = new ArrayList<>(users);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<VirtualUser>> logins = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                String username = userTemplate.formatted(firstUser + i);
+                logins.add(executor.submit(() -> {
+                    VirtualUser user = new VirtualUser(baseUri, objectMapper, timeout);
+                    user.login(username, password, weights);
+                    return user;
+                }));
+            }
+            for (Future<VirtualUser> login : logins) {
+                virtualUsers.add(login.get());
+            }
+        }
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        virtualUsers.forEach(user -> executor.submit(() -> loop(user)));
+
+        System.out.printf("Warming up for %s%n", warmup);
+        Thread.sleep(warmup.toMillis());
+        // Verwirft die Werte der Aufwärmphase
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+
+        System.out.printf("Measuring for %s%n", duration);
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        Map<Scenario, Histogram> histograms = new EnumMap<>(Scenario.class);
+        recorders.forEach((scenario, recorder) -> histograms.put(scenario, recorder.getIntervalHistogram()));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            // Hängende Anfragen abbrechen, sonst hält der Executor die JVM nach dem Bericht am Leben
+            executor.shutdownNow();
+        }
+
+        report(histograms, seconds);
+    }
+
+    // Bei Denkzeit 0 gibt es keine Koordinierungs-Auslassung zu korrigieren: gemessen wird die Antwortzeit je Anfrage
+    private void loop(VirtualUser user) {
+        while (running) {
+            Scenario scenario = user.nextScenario();
+            long start = System.nanoTime();
+            try {
+                int status = user.execute(scenario);
+                recorders.get(scenario).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                if (status >= 400) {
+                    errors.get(scenario).increment();
+                }
+            } catch (HttpTimeoutException e) {
+                // Zeitüberschreitungen gehen mit ihrer Dauer in die Verteilung ein, sonst fehlen gerade die langsamsten
+                recorders.get(scenario).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                errors.get(scenario).increment();
+            } catch (IOException e) {
+                errors.get(scenario).increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!thinkTime.isZero()) {
+                try {
+                    Thread.sleep(thinkTime.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void report(Map<Scenario, Histogram> histograms, double seconds) throws IOException {
+        Files.createDirectories(reportDir);
+        Histogram total = new Histogram(3);
+        StringBuilder report = new StringBuilder();
+        report.append("%d virtual users, %.0f s measured%n".formatted(users, seconds));
+        report.append("%-16s %9s %7s %9s %9s %9s %9s %9s %9s%n".formatted(
+                "scenario", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Scenario scenario : Scenario.values()) {
+            Histogram histogram = histograms.get(scenario);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            report.append(line(scenario.key(), histogram, errors.get(scenario).sum(), seconds));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(scenario.key() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        long totalErrors = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        report.append(line("total", total, totalErrors, seconds));
+
+        System.out.print(report);
+        Files.writeString(reportDir.resolve("report.txt"), report);
+        System.out.printf("HDR histograms written to %s%n", reportDir.toAbsolutePath());
+    }
+
+    private static String line(String name, Histogram histogram, long errorCount, double seconds) {
+        return String.format(Locale.ROOT, "%-16s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, histogram.getTotalCount(), errorCount, histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(name, defaultValue);
+    }
+}
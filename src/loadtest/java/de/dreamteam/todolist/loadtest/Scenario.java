@@ -0,0 +1,48 @@
+package de.dreamteam.todolist.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Szenarien des Lasttests. Die Gewichte bestimmen, wie oft ein virtueller Benutzer das Szenario wählt,
+ * und lassen sich mit -Dload.weights=list-todos=40,patch-status=20,... überschreiben.
+ */
+enum Scenario {
+
+    LIST_TODOS("list-todos", 40),
+    PATCH_STATUS("patch-status", 20),
+    LIST_PROJECTS("list-projects", 25),
+    CURRICULUM_EDIT("curriculum-edit", 15);
+
+    private final String key;
+    private final int defaultWeight;
+
+    Scenario(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Map<Scenario, Integer> weights(String property) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : values()) {
+            weights.put(scenario, scenario.defaultWeight);
+        }
+        if (property == null || property.isBlank()) {
+            return weights;
+        }
+        for (String entry : property.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            Scenario scenario = Arrays.stream(values())
+                    .filter(s -> s.key.equals(parts[0].trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown scenario in load.weights: " + parts[0]));
+            weights.put(scenario, parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        return weights;
+    }
+}
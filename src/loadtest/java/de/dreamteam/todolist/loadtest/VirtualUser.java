@@ -0,0 +1,150 @@
+package de.dreamteam.todolist.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ein angemeldeter Benutzer mit eigener Sitzung. Nach dem Login liegen JSESSIONID und XSRF-TOKEN im
+ * CookieManager; schreibende Anfragen schicken den Wert von XSRF-TOKEN im Header X-XSRF-TOKEN zurück,
+ * wie es das Frontend mit dem CookieCsrfTokenRepository aus SecurityConfig tut.
+ */
+final class VirtualUser {
+
+    private static final String API = "/todo-list-api";
+    private static final String XSRF_COOKIE = "XSRF-TOKEN";
+    private static final String XSRF_HEADER = "X-XSRF-TOKEN";
+    private static final String[] STATUSES = {"TODO", "DOING", "DONE"};
+
+    private final URI baseUri;
+    private final ObjectMapper objectMapper;
+    private final CookieManager cookieManager = new CookieManager();
+    private final HttpClient client;
+    private final Duration timeout;
+    private final List<Long> toDoIds = new ArrayList<>();
+    private final List<Long> curriculumToDoIds = new ArrayList<>();
+    private Map<Scenario, Integer> weights;
+    private int totalWeight;
+
+    VirtualUser(URI baseUri, ObjectMapper objectMapper, Duration timeout) {
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(cookieManager)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    // Anmeldung, CSRF-Token und die IDs, mit denen die schreibenden Szenarien arbeiten
+    void login(String username, String password, Map<Scenario, Integer> configuredWeights)
+            throws IOException, InterruptedException {
+        HttpResponse<String> login = send(json("POST", "/auth/login",
+                Map.of("username", username, "password", password)));
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed for " + username + ": HTTP " + login.statusCode()
+                    + " " + login.body());
+        }
+        if (xsrfToken() == null) {
+            // Das Token wird erst bei der ersten geschützten Anfrage erzeugt; die Ablehnung setzt das Cookie
+            send(json("PATCH", "/auth/current", Map.of()));
+            if (xsrfToken() == null) {
+                throw new IllegalStateException("No XSRF-TOKEN cookie received for " + username);
+            }
+        }
+
+        JsonNode page = objectMapper.readTree(send(get("/todos/page?size=200")).body());
+        page.path("items").forEach(item -> toDoIds.add(item.path("id").asLong()));
+        HttpResponse<String> curriculum = send(get("/curriculum/todos"));
+        if (curriculum.statusCode() == 200) {
+            objectMapper.readTree(curriculum.body()).forEach(entry -> curriculumToDoIds.add(entry.path("todoId").asLong()));
+        }
+
+        // Szenarien ohne passende Daten fallen für diesen Benutzer weg
+        weights = new EnumMap<>(configuredWeights);
+        if (toDoIds.isEmpty()) {
+            weights.remove(Scenario.PATCH_STATUS);
+        }
+        if (curriculumToDoIds.isEmpty()) {
+            weights.remove(Scenario.CURRICULUM_EDIT);
+        }
+        totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    Scenario nextScenario() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Scenario, Integer> entry : weights.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("No scenario available");
+    }
+
+    // Liefert den HTTP-Status; die Antwort wird vollständig gelesen, damit die Latenz den Body einschließt
+    int execute(Scenario scenario) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request = switch (scenario) {
+            case LIST_TODOS -> get("/todos/page?size=50");
+            case PATCH_STATUS -> json("PATCH", "/todos/" + pick(toDoIds) + "/status",
+                    Map.of("status", STATUSES[random.nextInt(STATUSES.length)]));
+            case LIST_PROJECTS -> get("/projects?summary=true");
+            case CURRICULUM_EDIT -> {
+                long toDoId = pick(curriculumToDoIds);
+                LocalDate start = LocalDate.now().plusDays(random.nextInt(30));
+                yield json("PATCH", "/curriculum/current/update-todo/" + toDoId,
+                        Map.of("todoId", toDoId, "startDate", start.toString(),
+                                "endDate", start.plusDays(1 + random.nextInt(14)).toString()));
+            }
+        };
+        return send(request).statusCode();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // connectTimeout gilt nur für den Verbindungsaufbau, ohne Timeout je Anfrage hängt ein Benutzer bei einem stehenden Server
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(API + path)).timeout(timeout).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, Object body) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(API + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        String token = xsrfToken();
+        if (token != null) {
+            builder.header(XSRF_HEADER, token);
+        }
+        return builder.build();
+    }
+
+    private String xsrfToken() {
+        return cookieManager.getCookieStore().getCookies().stream()
+                .filter(cookie -> XSRF_COOKIE.equals(cookie.getName()))
+                .map(HttpCookie::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static long pick(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,50 @@
+package de.dreamteam.todolist.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// Trefferquoten des Second-Level-Caches je Region, wie der Suchindex nur über JMX freigegeben
+@Component
+@Endpoint(id = "hibernatecache")
+@RequiredArgsConstructor
+public class HibernateCacheEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> regions = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, Map.of(
+                        "hits", region.getHitCount(),
+                        "misses", region.getMissCount(),
+                        "puts", region.getPutCount(),
+                        "hitRatio", hitRatio(region.getHitCount(), region.getMissCount())
+                ));
+            }
+        }
+        return Map.of(
+                "secondLevelHitRatio", hitRatio(statistics.getSecondLevelCacheHitCount(),
+                        statistics.getSecondLevelCacheMissCount()),
+                "queryHitRatio", hitRatio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()),
+                "regions", regions
+        );
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
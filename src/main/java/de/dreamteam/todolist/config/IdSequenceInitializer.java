@@ -0,0 +1,52 @@
+package de.dreamteam.todolist.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Zieht die Sequenzen von ToDo und ToDoCurriculum hinter die vorhandenen IDs, falls Zeilen mit
+ * höheren IDs existieren, z. B. aus der Zeit vor der Umstellung von IDENTITY auf Sequenzen. ddl-update
+ * legt neue Sequenzen mit Startwert 1 an; ohne diesen Schritt würden die ersten Inserts mit vorhandenen
+ * IDs kollidieren. Läuft nach dem Start von Hibernate und vor dem Webserver, nur unter PostgreSQL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+    // Muss zur allocationSize der Sequenzen in ToDo und ToDoCurriculum passen
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            log.debug("Skipping id sequence check on {}", product);
+            return;
+        }
+        align("todo", "todo_seq");
+        align("todo_curriculum", "todo_curriculum_seq");
+    }
+
+    // Hibernate vergibt beim pooled-Optimizer die IDs bis einschließlich des Sequenzwerts; liegt eine
+    // vorhandene ID darüber, beginnt der nächste Block erst hinter ihr. Sonst bleibt die Sequenz unverändert.
+    private void align(String table, String sequence) {
+        List<Long> values = jdbcTemplate.queryForList("""
+                select setval('%2$s', max_id + %3$d)
+                from (select max(id) as max_id from %1$s) ids
+                where max_id > (select last_value from %2$s)
+                """.formatted(table, sequence, ALLOCATION_SIZE), Long.class);
+        if (!values.isEmpty()) {
+            log.info("Moved sequence {} to {} past the existing ids of {}", sequence, values.getFirst(), table);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package de.dreamteam.todolist.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Aktiviert {@code @Timed} auf den Services (Metrik todolist.service, Tags class, method, exception).
+ * Repositories misst Spring Data selbst (spring.data.repository.invocations), HTTP-Anfragen
+ * Spring MVC (http.server.requests mit uri und outcome); Perzentile dazu in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
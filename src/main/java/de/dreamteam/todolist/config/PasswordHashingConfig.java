@@ -0,0 +1,48 @@
+package de.dreamteam.todolist.config;
+
+import de.dreamteam.todolist.service.BoundedPasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// Eigene Konfiguration, damit UserService den Encoder nutzen kann, ohne von SecurityConfig abzuhängen
+@Slf4j
+@Configuration
+public class PasswordHashingConfig {
+
+    @Value("${app.security.bcrypt.strength}")
+    private int strength;
+
+    // 0 = ein Thread pro CPU-Kern
+    @Value("${app.security.hashing.threads}")
+    private int threads;
+
+    @Value("${app.security.hashing.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${app.security.hashing.timeout-ms}")
+    private long timeoutMillis;
+
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        logCalibration(bcrypt, poolSize);
+        return new BoundedPasswordEncoder(bcrypt, poolSize, queueCapacity, timeoutMillis);
+    }
+
+    // Misst beim Start die Dauer eines Hashs, um Threads und Warteschlange passend zur Hardware einzustellen
+    private void logCalibration(BCryptPasswordEncoder bcrypt, int poolSize) {
+        long start = System.nanoTime();
+        bcrypt.encode("calibration");
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("BCrypt strength {} takes {} ms per hash; {} hashing threads handle about {} logins/s, "
+                        + "a full queue of {} drains in about {} ms",
+                strength, millis, poolSize, poolSize * 1000 / millis,
+                queueCapacity, queueCapacity * millis / poolSize);
+    }
+}
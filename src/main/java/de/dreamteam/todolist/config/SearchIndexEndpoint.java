@@ -0,0 +1,30 @@
+package de.dreamteam.todolist.config;
+
+import de.dreamteam.todolist.service.ToDoSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Betriebs-Endpunkt für den Suchindex, standardmäßig nur über JMX freigegeben
+@Component
+@Endpoint(id = "searchindex")
+@RequiredArgsConstructor
+public class SearchIndexEndpoint {
+
+    private final ToDoSearchService toDoSearchService;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return Map.of("documents", toDoSearchService.documentCount());
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() throws IOException {
+        return Map.of("indexed", toDoSearchService.rebuild());
+    }
+}
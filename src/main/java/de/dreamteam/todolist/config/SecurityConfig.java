@@ -1,10 +1,14 @@
 package de.dreamteam.todolist.config;
 
 import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import de.dreamteam.todolist.model.SecurityMode;
+import de.dreamteam.todolist.service.AccessTokenService;
 import de.dreamteam.todolist.service.UserService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,13 +18,17 @@ import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
@@ -37,10 +45,15 @@ public class SecurityConfig {
 
     private final UserService userService;
     private final MessageSource messageSource;
+    private final PasswordEncoder passwordEncoder;
+    private final AccessTokenService accessTokenService;
 
     @Value("${app.url.frontend}")
     private String frontendUrl;
 
+    @Value("${app.security.mode}")
+    private SecurityMode securityMode;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         CsrfTokenRequestAttributeHandler requestHandler = new CsrfTokenRequestAttributeHandler();
@@ -61,11 +74,6 @@ public class SecurityConfig {
                     config.setAllowCredentials(true);
                     return config;
                 }))
-                .csrf(csrf -> csrf
-                        .csrfTokenRepository(tokenRepository)
-                        .csrfTokenRequestHandler(requestHandler)
-                        .ignoringRequestMatchers("/todo-list-api/auth/login",
-                                                    "/todo-list-api/auth/logout"))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.POST, "/todo-list-api/users").permitAll()
                         .requestMatchers("/todo-list-api/auth/login",
@@ -74,13 +82,11 @@ public class SecurityConfig {
                                          "/todo-list-api/auth/verify",
                                          "/todo-list-api/auth/resend-verification-token",
                                          "/error").permitAll()
+                        // Nur auf dem Management-Port erreichbar (management.server.port), nicht öffentlich
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
 
                         .anyRequest().authenticated()
                 )
-                .sessionManagement(session -> session
-                        .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
-                        .maximumSessions(1)
-                )
                 .securityContext(securityContext -> securityContext
                         .securityContextRepository(securityContextRepository())
                 )
@@ -101,12 +107,36 @@ public class SecurityConfig {
                         })
                 );
 
+        if (securityMode == SecurityMode.TOKEN) {
+            // Zustandslos: jeder Knoten kann jede Anfrage bedienen. Das Token kommt im Authorization-Header
+            // und wird vom Browser nicht automatisch mitgeschickt, daher ist kein CSRF-Schutz nötig.
+            http
+                    .csrf(AbstractHttpConfigurer::disable)
+                    .sessionManagement(session -> session
+                            .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .addFilterBefore(new TokenAuthenticationFilter(accessTokenService),
+                            UsernamePasswordAuthenticationFilter.class);
+        } else {
+            http
+                    .csrf(csrf -> csrf
+                            .csrfTokenRepository(tokenRepository)
+                            .csrfTokenRequestHandler(requestHandler)
+                            .ignoringRequestMatchers("/todo-list-api/auth/login",
+                                                        "/todo-list-api/auth/logout"))
+                    .sessionManagement(session -> session
+                            .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
+                            .maximumSessions(1)
+                    );
+        }
+
         return http.build();
     }
 
     @Bean
     public SecurityContextRepository securityContextRepository() {
-        return new HttpSessionSecurityContextRepository();
+        return securityMode == SecurityMode.TOKEN
+                ? new RequestAttributeSecurityContextRepository()
+                : new HttpSessionSecurityContextRepository();
     }
 
     @Bean
@@ -119,25 +149,32 @@ public class SecurityConfig {
             if (!user.isEnabled()) {
                 throw new UsernameNotFoundException("Konto nicht aktiviert");
             }
-            return org.springframework.security.core.userdetails.User
-                    .withUsername(user.getUsername())
-                    .password(user.getPassword())
-                    .roles("USER")
-                    .build();
+            // Die ID im Principal erspart den Services das Nachladen des Benutzers pro Anfrage
+            return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(),
+                    List.of(new SimpleGrantedAuthority("ROLE_USER")));
         };
     }
 
 
+    // Speichert beim Login einen neuen Hash, wenn der alte mit geringerer BCrypt-Stärke erzeugt wurde
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            userService.updatePasswordHash(user.getUsername(), newPassword);
+            if (user instanceof AuthenticatedUser authenticatedUser) {
+                return new AuthenticatedUser(authenticatedUser.getId(), user.getUsername(), newPassword,
+                        user.getAuthorities());
+            }
+            return user;
+        };
+    }
+
     @Bean
     public AuthenticationManager authenticationManager() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return new ProviderManager(authProvider);
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
@@ -0,0 +1,23 @@
+package de.dreamteam.todolist.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Obergrenze für SQL-Anweisungen und nachgeladene Collections einer Anfrage an diesen Endpunkt.
+ * Die Grenze soll unabhängig von der Datenmenge sein; wächst die Zahl mit den Daten, ist es ein N+1.
+ * Mit app.sql-budget.enforce=true (Tests) schlägt die Anfrage bei Überschreitung fehl, sonst wird gewarnt.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+    int statements();
+
+    // -1 = keine Grenze
+    int collections() default -1;
+}
@@ -0,0 +1,9 @@
+package de.dreamteam.todolist.config;
+
+// Nur mit app.sql-budget.enforce=true, damit Tests bei einer Überschreitung des @SqlBudget fehlschlagen
+public class SqlBudgetExceededException extends IllegalStateException {
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
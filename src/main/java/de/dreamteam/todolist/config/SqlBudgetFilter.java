@@ -0,0 +1,188 @@
+package de.dreamteam.todolist.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Zählt pro HTTP-Anfrage SQL-Anweisungen, geladene Entities und nachgeladene Collections.
+ * <ul>
+ *     <li>immer als Metriken je Route (http.server.sql.*)</li>
+ *     <li>mit app.sql-budget.headers=true zusätzlich als Response-Header (für die Entwicklung)</li>
+ *     <li>langsame oder auffällige Anfragen samt häufigster Anweisungen im Log</li>
+ *     <li>Überschreitung eines {@link SqlBudget}: Warnung, mit app.sql-budget.enforce=true eine Exception</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    private static final String ENTITIES_HEADER = "X-SQL-Entities";
+    private static final String COLLECTIONS_HEADER = "X-SQL-Collections";
+    private static final int LOGGED_STATEMENTS = 10;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.sql-budget.headers}")
+    private boolean headers;
+
+    @Value("${app.sql-budget.enforce}")
+    private boolean enforce;
+
+    @Value("${app.sql-budget.slow-request-ms}")
+    private long slowRequestMillis;
+
+    @Value("${app.sql-budget.warn-statements}")
+    private int warnStatements;
+
+    // Ab so vielen Wiederholungen derselben Anweisung wird ein N+1 vermutet
+    @Value("${app.sql-budget.repeat-threshold}")
+    private int repeatThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlRequestStatistics statistics = SqlRequestStatistics.begin();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, headers ? new StatisticsHeaderResponse(response, statistics) : response);
+        } finally {
+            SqlRequestStatistics.end();
+        }
+        if (headers && !response.isCommitted()) {
+            // Antworten ohne Body, z.B. 204 oder 304
+            writeHeaders(response, statistics);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        String route = route(request);
+
+        record(route, statistics);
+        logIfSuspicious(request, route, millis, statistics);
+        checkBudget(route, statistics);
+    }
+
+    private void record(String route, SqlRequestStatistics statistics) {
+        DistributionSummary.builder("http.server.sql.statements").tag("uri", route).register(meterRegistry)
+                .record(statistics.statements());
+        DistributionSummary.builder("http.server.sql.entities").tag("uri", route).register(meterRegistry)
+                .record(statistics.entitiesLoaded());
+        DistributionSummary.builder("http.server.sql.collections").tag("uri", route).register(meterRegistry)
+                .record(statistics.collectionsInitialized());
+    }
+
+    private void logIfSuspicious(HttpServletRequest request, String route, long millis,
+                                 SqlRequestStatistics statistics) {
+        Map<String, Integer> repeated = statistics.statementCounts().entrySet().stream()
+                .filter(entry -> entry.getValue() >= repeatThreshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (!repeated.isEmpty()) {
+            log.warn("Possible N+1 in {} {}: {}", request.getMethod(), route, repeated);
+        }
+        if (millis >= slowRequestMillis || statistics.statements() >= warnStatements) {
+            String topStatements = statistics.statementCounts().entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                    .limit(LOGGED_STATEMENTS)
+                    .map(entry -> entry.getValue() + "x " + entry.getKey())
+                    .collect(Collectors.joining("\n  ", "\n  ", ""));
+            log.warn("Slow request {} {}: {} ms, {} statements, {} entities, {} collections{}",
+                    request.getMethod(), route, millis, statistics.statements(), statistics.entitiesLoaded(),
+                    statistics.collectionsInitialized(), topStatements);
+        }
+    }
+
+    private void checkBudget(String route, SqlRequestStatistics statistics) {
+        SqlBudget budget = statistics.budget();
+        if (budget == null) {
+            return;
+        }
+        boolean statementsExceeded = statistics.statements() > budget.statements();
+        boolean collectionsExceeded = budget.collections() >= 0
+                && statistics.collectionsInitialized() > budget.collections();
+        if (!statementsExceeded && !collectionsExceeded) {
+            return;
+        }
+        Counter.builder("http.server.sql.budget.exceeded").tag("uri", route).register(meterRegistry).increment();
+        String message = "SQL budget exceeded in %s: %d/%d statements, %d/%s collections; statements: %s".formatted(
+                statistics.handler(), statistics.statements(), budget.statements(),
+                statistics.collectionsInitialized(), budget.collections() >= 0 ? budget.collections() : "-",
+                statistics.statementCounts());
+        if (enforce) {
+            throw new SqlBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    private static void writeHeaders(HttpServletResponse response, SqlRequestStatistics statistics) {
+        response.setHeader(STATEMENTS_HEADER, Integer.toString(statistics.statements()));
+        response.setHeader(ENTITIES_HEADER, Integer.toString(statistics.entitiesLoaded()));
+        response.setHeader(COLLECTIONS_HEADER, Integer.toString(statistics.collectionsInitialized()));
+    }
+
+    // Routenmuster statt konkreter URI, damit die Zahl der Metrik-Tags begrenzt bleibt
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    // Setzt die Zähler-Header, sobald der Body geschrieben wird; später ausgeführte Anweisungen fehlen darin
+    private static final class StatisticsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final SqlRequestStatistics statistics;
+        private boolean headersWritten;
+
+        StatisticsHeaderResponse(HttpServletResponse response, SqlRequestStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        private void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            SqlBudgetFilter.writeHeaders(this, statistics);
+        }
+    }
+}
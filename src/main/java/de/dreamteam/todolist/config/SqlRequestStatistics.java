@@ -0,0 +1,84 @@
+package de.dreamteam.todolist.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Zähler einer HTTP-Anfrage für SQL-Anweisungen, geladene Entities und nachgeladene Collections.
+ * Gebunden an den Thread der Anfrage; Arbeit in anderen Threads (z.B. Streaming-Export) zählt nicht mit.
+ */
+public final class SqlRequestStatistics {
+
+    private static final ThreadLocal<SqlRequestStatistics> CURRENT = new ThreadLocal<>();
+    private static final int MAX_DISTINCT_STATEMENTS = 100;
+
+    private int statements;
+    private int entitiesLoaded;
+    private int collectionsInitialized;
+    private final Map<String, Integer> statementCounts = new LinkedHashMap<>();
+    private SqlBudget budget;
+    private String handler;
+
+    private SqlRequestStatistics() {
+    }
+
+    static SqlRequestStatistics begin() {
+        SqlRequestStatistics statistics = new SqlRequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // Öffentlich für die JFR-Ereignisse der Anfrage (siehe JfrConfig)
+    public static Optional<SqlRequestStatistics> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    void statementExecuted(String sql) {
+        statements++;
+        if (statementCounts.size() < MAX_DISTINCT_STATEMENTS || statementCounts.containsKey(sql)) {
+            statementCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+
+    void collectionInitialized() {
+        collectionsInitialized++;
+    }
+
+    void budget(SqlBudget budget, String handler) {
+        this.budget = budget;
+        this.handler = handler;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    int entitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    int collectionsInitialized() {
+        return collectionsInitialized;
+    }
+
+    Map<String, Integer> statementCounts() {
+        return statementCounts;
+    }
+
+    SqlBudget budget() {
+        return budget;
+    }
+
+    String handler() {
+        return handler;
+    }
+}
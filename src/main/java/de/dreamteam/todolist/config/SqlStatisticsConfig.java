@@ -0,0 +1,65 @@
+package de.dreamteam.todolist.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Verbindet Hibernate mit {@link SqlRequestStatistics}: ein StatementInspector zählt jede Anweisung,
+ * Event-Listener zählen geladene Entities und nachgeladene Collections. Ein Interceptor merkt sich
+ * das {@link SqlBudget} des aufgerufenen Endpunkts für den {@link SqlBudgetFilter}.
+ */
+@Configuration
+public class SqlStatisticsConfig implements WebMvcConfigurer {
+
+    // static, damit die Bean vor der EntityManagerFactory ohne diese Konfiguration erzeugt werden kann
+    @Bean
+    public static HibernatePropertiesCustomizer sqlStatementCounter() {
+        StatementInspector inspector = sql -> {
+            SqlRequestStatistics.current().ifPresent(statistics -> statistics.statementExecuted(sql));
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public static SmartInitializingSingleton sqlEventListeners(EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry().getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) _ ->
+                    SqlRequestStatistics.current().ifPresent(SqlRequestStatistics::entityLoaded));
+            registry.appendListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) _ ->
+                    SqlRequestStatistics.current().ifPresent(SqlRequestStatistics::collectionInitialized));
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod method && method.hasMethodAnnotation(SqlBudget.class)) {
+                    SqlRequestStatistics.current().ifPresent(statistics -> statistics.budget(
+                            method.getMethodAnnotation(SqlBudget.class), method.getShortLogMessage()));
+                }
+                return true;
+            }
+        });
+    }
+}
@@ -3,13 +3,21 @@ package de.dreamteam.todolist.controller;
 import de.dreamteam.todolist.controller.payload.ForgotPasswordPayload;
 import de.dreamteam.todolist.controller.payload.LoginPayload;
 import de.dreamteam.todolist.controller.payload.ResetPasswordPayload;
+import de.dreamteam.todolist.config.TokenAuthenticationFilter;
 import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import de.dreamteam.todolist.model.RateLimitPolicy;
+import de.dreamteam.todolist.model.SecurityMode;
+import de.dreamteam.todolist.service.AccessTokenService;
+import de.dreamteam.todolist.service.CurrentUser;
+import de.dreamteam.todolist.service.RateLimiterService;
 import de.dreamteam.todolist.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -32,13 +40,21 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
+    private final CurrentUser currentUser;
     private final SecurityContextRepository securityContextRepository;
     private final MessageSource messageSource;
+    private final AccessTokenService accessTokenService;
+    private final RateLimiterService rateLimiterService;
+
+    @Value("${app.security.mode}")
+    private SecurityMode securityMode;
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginPayload payload, Locale locale,
                                    HttpServletRequest request,
                                    HttpServletResponse response) {
+        // Vor BCrypt und Datenbank, damit Angriffe auf Passwörter keine Last erzeugen
+        rateLimiterService.check(RateLimitPolicy.LOGIN, request.getRemoteAddr(), payload.username());
 
         UsernamePasswordAuthenticationToken authRequest =
                 new UsernamePasswordAuthenticationToken(payload.username(), payload.password());
@@ -51,12 +67,13 @@ public class AuthController {
 
         securityContextRepository.saveContext(context, request, response);
 
-        User user = userService.findUserByUsername(payload.username());
-
         Map<String, Object> resp = new HashMap<>();
-        resp.put("username", user.getUsername());
+        resp.put("username", authentication.getName());
         resp.put("message", messageSource.getMessage("auth.login.info.login_is_successful",
                 null, locale));
+        if (securityMode == SecurityMode.TOKEN && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            putAccessToken(resp, principal);
+        }
 
         return ResponseEntity.ok(resp);
     }
@@ -73,7 +90,7 @@ public class AuthController {
             return ResponseEntity.status(401).body(errorResponse);
         }
 
-        User user = userService.findUserByUsername(authentication.getName());
+        User user = currentUser.find().orElse(null);
 
         if (user == null) {
             return ResponseEntity.status(404).body(Map.of("error", messageSource.getMessage(
@@ -92,6 +109,14 @@ public class AuthController {
 
     @PostMapping("/logout")
     public ResponseEntity<?> logout(HttpServletRequest request, Locale locale) {
+        if (securityMode == SecurityMode.TOKEN) {
+            // Das Token bleibt bis zum Ablauf gültig, daher auf die Widerrufsliste setzen
+            String token = TokenAuthenticationFilter.extractToken(request);
+            if (token != null) {
+                accessTokenService.revoke(token);
+            }
+        }
+
         SecurityContext context = SecurityContextHolder.getContext();
         context.setAuthentication(null);
         SecurityContextHolder.clearContext();
@@ -109,7 +134,9 @@ public class AuthController {
     }
 
     @PostMapping("/forgot-password")
-    public ResponseEntity<?> forgotPassword(@Valid @RequestBody ForgotPasswordPayload payload, Locale locale) {
+    public ResponseEntity<?> forgotPassword(@Valid @RequestBody ForgotPasswordPayload payload, Locale locale,
+                                            HttpServletRequest request) {
+        rateLimiterService.check(RateLimitPolicy.FORGOT_PASSWORD, request.getRemoteAddr(), payload.email());
         boolean success = userService.initiatePasswordReset(payload.email());
 
         Map<String, String> response = new HashMap<>();
@@ -125,7 +152,9 @@ public class AuthController {
     }
 
     @PostMapping("/reset-password")
-    public ResponseEntity<?> resetPassword(@Valid @RequestBody ResetPasswordPayload payload, Locale locale) {
+    public ResponseEntity<?> resetPassword(@Valid @RequestBody ResetPasswordPayload payload, Locale locale,
+                                           HttpServletRequest request) {
+        rateLimiterService.check(RateLimitPolicy.RESET_PASSWORD, request.getRemoteAddr(), null);
         boolean success = userService.resetPassword(payload.token(), payload.password());
 
         Map<String, String> response = new HashMap<>();
@@ -144,12 +173,17 @@ public class AuthController {
     public ResponseEntity<?> verifyEmail(@RequestParam String token, Locale locale,
                                          HttpServletRequest request,
                                          HttpServletResponse response) {
+        rateLimiterService.check(RateLimitPolicy.VERIFY, request.getRemoteAddr(), null);
         boolean success = userService.verifyUser(token);
 
-        Map<String, String> responseBody = new HashMap<>();
+        Map<String, Object> responseBody = new HashMap<>();
         if (success) {
             SecurityContext context = SecurityContextHolder.getContext();
             securityContextRepository.saveContext(context, request, response);
+            if (securityMode == SecurityMode.TOKEN
+                    && context.getAuthentication().getPrincipal() instanceof AuthenticatedUser principal) {
+                putAccessToken(responseBody, principal);
+            }
 
             responseBody.put("message", messageSource.getMessage(
                     "auth.verify.info.verification_successful", null, locale));
@@ -162,7 +196,9 @@ public class AuthController {
     }
 
     @GetMapping("/resend-verification-token")
-    public ResponseEntity<?> resendVerificationToken(@RequestParam String email, Locale locale) {
+    public ResponseEntity<?> resendVerificationToken(@RequestParam String email, Locale locale,
+                                                     HttpServletRequest request) {
+        rateLimiterService.check(RateLimitPolicy.RESEND_VERIFICATION, request.getRemoteAddr(), email);
         boolean success = userService.initiateVerificationTokenResend(email);
 
         Map<String, String> response = new HashMap<>();
@@ -176,4 +212,10 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
         }
     }
+
+    private void putAccessToken(Map<String, Object> body, AuthenticatedUser principal) {
+        AccessTokenService.IssuedToken issued = accessTokenService.issue(principal);
+        body.put("token", issued.token());
+        body.put("expiresAt", issued.expiresAt());
+    }
 }
@@ -0,0 +1,28 @@
+package de.dreamteam.todolist.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Bedingtes GET mit starken ETags. Der Tag wird aus Versionsstempeln berechnet, bevor ein DTO
+ * aufgebaut wird; stimmt er mit If-None-Match überein, gibt der Handler null zurück und Spring
+ * antwortet mit 304.
+ */
+final class ConditionalRequests {
+
+    // Privat, und der Client muss die gespeicherte Antwort vor jeder Wiederverwendung mit dem ETag prüfen lassen
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalRequests() {
+    }
+
+    static boolean notModified(ServletWebRequest request, String etag) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(etag);
+    }
+}
@@ -1,5 +1,6 @@
 package de.dreamteam.todolist.controller;
 
+import de.dreamteam.todolist.config.SqlBudget;
 import de.dreamteam.todolist.controller.payload.*;
 import de.dreamteam.todolist.entity.Curriculum;
 import de.dreamteam.todolist.entity.ToDoCurriculum;
@@ -11,6 +12,7 @@ import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -78,11 +80,15 @@ public class CurriculumRestController {
     }
 
 
+    @SqlBudget(statements = 6)
     @GetMapping("/current")
-    public ResponseEntity<?> getCurriculumForCurrentUser(Locale locale) {
+    public ResponseEntity<?> getCurriculumForCurrentUser(Locale locale, ServletWebRequest request) {
         Optional<Curriculum> curriculumOpt = curriculumService.getCurriculumForCurrentUser();
         if (curriculumOpt.isPresent()) {
             Curriculum c = curriculumOpt.get();
+            if (ConditionalRequests.notModified(request, curriculumService.getCurriculumETag(c))) {
+                return null;
+            }
             CurriculumResponse response = CurriculumResponse.builder()
                     .id(c.getId())
                     .title(c.getTitle())
@@ -97,11 +103,15 @@ public class CurriculumRestController {
         }
     }
 
+    @SqlBudget(statements = 6)
     @GetMapping("/todos")
-    public ResponseEntity<List<UpdateToDoCurriculumPayload>> getTasksForCurriculum() {
+    public ResponseEntity<List<UpdateToDoCurriculumPayload>> getTasksForCurriculum(ServletWebRequest request) {
         // Ermittelt den Lehrplan für den aktuellen Benutzer. Wenn nicht gefunden, wird eine Ausnahme ausgelöst.
         Curriculum curriculum = curriculumService.getCurriculumForCurrentUser()
                 .orElseThrow(() -> new RuntimeException("Curriculum not found for current user"));
+        if (ConditionalRequests.notModified(request, curriculumService.getCurriculumToDosETag(curriculum))) {
+            return null;
+        }
 
         // Извлекаем список ассоциаций ToDoCurriculum и маппим их в DTO UpdateToDoCurriculumPayload
         List<UpdateToDoCurriculumPayload> responses = curriculum.getToDoCurriculumList().stream()
@@ -1,9 +1,56 @@
 package de.dreamteam.todolist.controller;
 
+import de.dreamteam.todolist.service.HashingCapacityExceededException;
+import de.dreamteam.todolist.service.RateLimitExceededException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.Locale;
+import java.util.Map;
+
+@Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class HttpExceptionHandler {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final MessageSource messageSource;
+
+    // Passwort-Hashing ausgelastet: sofort ablehnen, der Client soll es kurz darauf erneut versuchen
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<Map<String, String>> handleHashingCapacityExceeded(HashingCapacityExceededException e,
+                                                                             Locale locale) {
+        log.warn("Rejected request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(Map.of("error", messageSource.getMessage("security.hashing.errors.busy", null, locale)));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, String>> handleRateLimitExceeded(RateLimitExceededException e, Locale locale) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(Map.of("error", messageSource.getMessage("security.rate_limit.errors.too_many_requests",
+                        null, locale)));
+    }
 
+    // @Version: ein anderer Request hat denselben Datensatz zwischen Laden und Speichern geändert. Die
+    // Änderung wurde zurückgerollt; der Client lädt den aktuellen Stand neu und entscheidet selbst
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException e,
+                                                                             Locale locale) {
+        log.info("Concurrent modification of {} with id {}", e.getPersistentClassName(), e.getIdentifier());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", messageSource.getMessage("security.conflict.errors.concurrent_modification",
+                        null, locale)));
+    }
 }
@@ -1,8 +1,12 @@
 package de.dreamteam.todolist.controller;
 
+import de.dreamteam.todolist.config.SqlBudget;
 import de.dreamteam.todolist.entity.Project;
+import de.dreamteam.todolist.controller.payload.CursorPagePayload;
 import de.dreamteam.todolist.controller.payload.NewProjectPayload;
 import de.dreamteam.todolist.controller.payload.UpdateProjectPayload;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.ToDoRepository;
 import de.dreamteam.todolist.service.ProjectService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
@@ -11,6 +15,7 @@ import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.nio.file.AccessDeniedException;
@@ -34,6 +39,12 @@ public class ProjectRestController {
             String description,
             List<TaskDto> tasks
     ) {}
+    public record ProjectSummaryDto(
+            Long id,
+            String title,
+            String description,
+            Map<ToDoStatus, Long> taskCounts
+    ) {}
 
     // Ein neues Projekt erstellen
     @PostMapping
@@ -59,20 +70,37 @@ public class ProjectRestController {
     }
 
     // Abrufen einer Liste aller Projekte
+    // Mit summary=true werden statt der Aufgaben nur die Anzahlen je Status geliefert
+    @SqlBudget(statements = 6)
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllProjects(Locale locale) {
+    public ResponseEntity<Map<String, Object>> getAllProjects(
+            @RequestParam(defaultValue = "false") boolean summary,
+            Locale locale,
+            ServletWebRequest request
+    ) {
+        if (ConditionalRequests.notModified(request, projectService.getAllProjectsETag(summary, locale))) {
+            return null;
+        }
         List<Project> projects = projectService.getAllProjectsForCurrentUser();
 
-        List<ProjectWithTasksDto> dtos = projects.stream()
-                .map(p -> {
-                    List<TaskDto> tasks = p.getToDos().stream()
-                            .map(t -> new TaskDto(t.getId(), t.getTitle(), t.getStartDate(), t.getEndDate()))
-                            .toList();
-                    return new ProjectWithTasksDto(
-                            p.getId(), p.getTitle(), p.getDescription(), tasks
-                    );
-                })
-                .toList();
+        List<?> dtos;
+        if (summary) {
+            Map<Long, Map<ToDoStatus, Long>> counts = projectService.countTasksByStatus(projects);
+            dtos = projects.stream()
+                    .map(p -> new ProjectSummaryDto(
+                            p.getId(), p.getTitle(), p.getDescription(),
+                            counts.getOrDefault(p.getId(), Map.of())
+                    ))
+                    .toList();
+        } else {
+            Map<Long, List<ToDoRepository.ProjectTaskView>> tasksByProject = projectService.getTasksByProject(projects);
+            dtos = projects.stream()
+                    .map(p -> new ProjectWithTasksDto(
+                            p.getId(), p.getTitle(), p.getDescription(),
+                            toTaskDtos(tasksByProject.getOrDefault(p.getId(), List.of()))
+                    ))
+                    .toList();
+        }
 
         String key = dtos.isEmpty()
                 ? "project.getAll.empty"
@@ -85,17 +113,51 @@ public class ProjectRestController {
         ));
     }
 
+    // Aufgaben eines Projekts seitenweise abrufen (Keyset-Paginierung über einen Cursor)
+    @GetMapping("/{id}/tasks")
+    public ResponseEntity<?> getProjectTasks(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            Locale locale
+    ) {
+        try {
+            CursorPagePayload<ToDoRepository.ProjectTaskView> page =
+                    projectService.getTaskPageForCurrentUser(id, cursor, size);
+            return ResponseEntity.ok(new CursorPagePayload<>(toTaskDtos(page.items()), page.nextCursor()));
+        }
+        catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", ex.getMessage()));
+        }
+        catch (EntityNotFoundException ex) {
+            String notFound = messageSource.getMessage("project.not.found", new Object[]{id}, locale);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", notFound));
+        }
+        catch (AccessDeniedException ex) {
+            String denied = messageSource.getMessage("project.access.denied", null, locale);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", denied));
+        }
+    }
+
     // Abrufen eines Projekts nach ID
+    @SqlBudget(statements = 6)
     @GetMapping("/{id}")
     public ResponseEntity<?> getProjectById(
             @PathVariable Long id,
-            Locale locale
+            Locale locale,
+            ServletWebRequest request
     ) {
         try {
             Project p = projectService.getProjectByIdForCurrentUser(id);
-            List<TaskDto> tasks = p.getToDos().stream()
-                    .map(t -> new TaskDto(t.getId(), t.getTitle(), t.getStartDate(), t.getEndDate()))
-                    .toList();
+            // Erst nach der Zugriffsprüfung, damit auch ein 304 nur an Berechtigte geht
+            if (ConditionalRequests.notModified(request, projectService.getProjectETag(p, locale))) {
+                return null;
+            }
+            List<TaskDto> tasks = toTaskDtos(
+                    projectService.getTasksByProject(List.of(p)).getOrDefault(p.getId(), List.of()));
             ProjectWithTasksDto dto = new ProjectWithTasksDto(
                     p.getId(), p.getTitle(), p.getDescription(), tasks
             );
@@ -208,6 +270,12 @@ public class ProjectRestController {
                     .body(Map.of("message", denied));
         }
     }
+
+    private static List<TaskDto> toTaskDtos(List<ToDoRepository.ProjectTaskView> tasks) {
+        return tasks.stream()
+                .map(t -> new TaskDto(t.getId(), t.getTitle(), t.getStartDate(), t.getEndDate()))
+                .toList();
+    }
 }
 
 
@@ -1,18 +1,33 @@
 package de.dreamteam.todolist.controller;
 
+import de.dreamteam.todolist.config.SqlBudget;
+import de.dreamteam.todolist.controller.payload.CursorPagePayload;
 import de.dreamteam.todolist.controller.payload.NewToDoPayload;
+import de.dreamteam.todolist.controller.payload.ToDoBatchPayload;
+import de.dreamteam.todolist.controller.payload.ToDoBatchResultPayload;
+import de.dreamteam.todolist.controller.payload.ToDoImportResultPayload;
+import de.dreamteam.todolist.controller.payload.ToDoQueryPayload;
 import de.dreamteam.todolist.controller.payload.UpdateStatusPayload;
 import de.dreamteam.todolist.controller.payload.UpdateToDoPayload;
 import de.dreamteam.todolist.controller.payload.UserTodoPayload;
 import de.dreamteam.todolist.entity.ToDo;
+import de.dreamteam.todolist.model.ImportFormat;
 import de.dreamteam.todolist.repository.ToDoRepository;
+import de.dreamteam.todolist.service.ToDoImportService;
 import de.dreamteam.todolist.service.ToDoService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.security.Principal;
 import java.util.List;
 
@@ -23,17 +38,61 @@ public class ToDoRestController {
 
     private final ToDoService toDoService;
 
+    private final ToDoImportService toDoImportService;
+
     private final ToDoRepository toDoRepository;
 
+    @SqlBudget(statements = 5)
     @GetMapping
-    public List<UserTodoPayload> getAllToDos() {
+    public List<UserTodoPayload> getAllToDos(ServletWebRequest request) {
         try {
+            if (ConditionalRequests.notModified(request, toDoService.getAllToDosETag())) {
+                return null;
+            }
             return toDoService.getAllToDos();
         } catch (Exception e) {
             throw new IllegalArgumentException(e);
         }
     }
 
+    @SqlBudget(statements = 5)
+    @GetMapping("page")
+    public CursorPagePayload<UserTodoPayload> getToDoPage(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "50") int size) {
+        try {
+            return toDoService.getToDoPage(cursor, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // z.B. /todos/filter?status=DOING&endTo=2025-06-01&sort=END_DATE
+    @GetMapping("filter")
+    public List<UserTodoPayload> findToDos(@ModelAttribute ToDoQueryPayload query) {
+        return toDoService.findToDos(query);
+    }
+
+    @GetMapping("search")
+    public List<UserTodoPayload> searchToDos(@RequestParam("q") String query,
+                                             @RequestParam(defaultValue = "20") int size) {
+        try {
+            return toDoService.searchToDos(query, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // Export aller ToDos des Benutzers als NDJSON, wird gestreamt statt vollständig im Speicher aufgebaut
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportToDos() {
+        Long userId = toDoService.currentUserId();
+        StreamingResponseBody body = out -> toDoService.exportToDos(userId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"todos.ndjson\"")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("{toDoId:\\d+}")
     public ResponseEntity<ToDo> getToDo(@PathVariable long toDoId) {
         System.out.println("getToDo: " + toDoId);
@@ -46,6 +105,21 @@ public class ToDoRestController {
         return ResponseEntity.status(HttpStatus.OK).body(payload);
     }
 
+    // Mehrere Operationen (anlegen, ändern, Status, löschen) in einer Transaktion
+    @PostMapping("batch")
+    public ResponseEntity<ToDoBatchResultPayload> applyBatch(@Valid @RequestBody ToDoBatchPayload payload) {
+        ToDoBatchResultPayload result = toDoService.applyBatch(payload);
+        return ResponseEntity.status(result.applied() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY).body(result);
+    }
+
+    // Import aus CSV (mit Kopfzeile) oder JSON/NDJSON, die Datei wird als Request-Body gestreamt
+    @PostMapping(value = "import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ToDoImportResultPayload importToDos(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        ImportFormat format = "csv".equalsIgnoreCase(contentType.getSubtype()) ? ImportFormat.CSV : ImportFormat.JSON;
+        return toDoImportService.importToDos(request.getInputStream(), format);
+    }
+
     @PatchMapping("{toDoId:\\d+}")
     public ResponseEntity<UpdateToDoPayload> updateToDo(@PathVariable Long toDoId, @Valid @RequestBody UpdateToDoPayload payload) {
         try {
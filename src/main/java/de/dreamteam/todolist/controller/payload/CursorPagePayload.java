@@ -0,0 +1,11 @@
+package de.dreamteam.todolist.controller.payload;
+
+import java.util.List;
+
+public record CursorPagePayload<T>(
+
+        List<T> items,
+
+        String nextCursor
+) {
+}
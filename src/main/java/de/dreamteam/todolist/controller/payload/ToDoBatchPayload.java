@@ -0,0 +1,15 @@
+package de.dreamteam.todolist.controller.payload;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ToDoBatchPayload(
+
+        @NotEmpty
+        @Size(max = 500)
+        List<@Valid ToDoOperationPayload> operations
+) {
+}
@@ -0,0 +1,12 @@
+package de.dreamteam.todolist.controller.payload;
+
+import java.util.List;
+
+public record ToDoBatchResultPayload(
+
+        // false, wenn eine Operation fehlgeschlagen ist und der gesamte Batch zurückgerollt wurde
+        boolean applied,
+
+        List<ToDoOperationResultPayload> results
+) {
+}
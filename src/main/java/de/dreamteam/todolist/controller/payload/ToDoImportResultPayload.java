@@ -0,0 +1,16 @@
+package de.dreamteam.todolist.controller.payload;
+
+import java.util.List;
+
+public record ToDoImportResultPayload(
+
+        long rowsRead,
+
+        long imported,
+
+        long failed,
+
+        // Fehlermeldungen mit Zeilennummer, auf eine feste Anzahl begrenzt
+        List<String> errors
+) {
+}
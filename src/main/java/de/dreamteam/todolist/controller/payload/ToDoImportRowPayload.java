@@ -0,0 +1,25 @@
+package de.dreamteam.todolist.controller.payload;
+
+import de.dreamteam.todolist.model.ToDoStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Eine Zeile der Import-Datei; in CSV werden die Lehrplan-IDs mit ';' getrennt
+public record ToDoImportRowPayload(
+
+        String title,
+
+        String description,
+
+        LocalDate startDate,
+
+        LocalDate endDate,
+
+        ToDoStatus status,
+
+        Long projectId,
+
+        List<Long> curriculumIds
+) {
+}
@@ -0,0 +1,28 @@
+package de.dreamteam.todolist.controller.payload;
+
+import de.dreamteam.todolist.model.ToDoOperationType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.lang.Nullable;
+
+public record ToDoOperationPayload(
+
+        @NotNull
+        ToDoOperationType type,
+
+        // ID des betroffenen ToDos, für UPDATE, STATUS und DELETE
+        @Nullable
+        Long id,
+
+        @Nullable
+        @Valid
+        NewToDoPayload create,
+
+        @Nullable
+        @Valid
+        UpdateToDoPayload update,
+
+        @Nullable
+        UpdateStatusPayload status
+) {
+}
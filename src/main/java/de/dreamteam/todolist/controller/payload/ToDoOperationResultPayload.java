@@ -0,0 +1,17 @@
+package de.dreamteam.todolist.controller.payload;
+
+import de.dreamteam.todolist.model.ToDoOperationType;
+
+public record ToDoOperationResultPayload(
+
+        int index,
+
+        ToDoOperationType type,
+
+        Long id,
+
+        boolean success,
+
+        String error
+) {
+}
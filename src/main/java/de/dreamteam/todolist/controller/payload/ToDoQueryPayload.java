@@ -0,0 +1,48 @@
+package de.dreamteam.todolist.controller.payload;
+
+import de.dreamteam.todolist.model.ToDoSortKey;
+import de.dreamteam.todolist.model.ToDoStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+public record ToDoQueryPayload(
+
+        @Nullable
+        Set<ToDoStatus> status,
+
+        @Nullable
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate startFrom,
+
+        @Nullable
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate startTo,
+
+        @Nullable
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate endFrom,
+
+        @Nullable
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate endTo,
+
+        @Nullable
+        Long projectId,
+
+        @Nullable
+        Long curriculumId,
+
+        @Nullable
+        ToDoSortKey sort,
+
+        @Nullable
+        Sort.Direction direction,
+
+        @Nullable
+        Integer size
+) {
+}
@@ -1,5 +1,6 @@
 package de.dreamteam.todolist.controller.payload;
 
+import de.dreamteam.todolist.model.DigestFrequency;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
@@ -25,5 +26,8 @@ public record UpdateUserPayload(
 
         @Pattern(regexp = "^$|^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)[a-zA-Z0-9]{8,}$",
                 message = "{user.update.errors.password_is_invalid}")
-        String password) {
+        String password,
+
+        // Optional; ohne Angabe bleibt die bisherige Einstellung erhalten
+        DigestFrequency digestFrequency) {
 }
@@ -3,6 +3,9 @@ package de.dreamteam.todolist.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,12 +17,19 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Table(name = "curriculum")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "curriculum")
 public class  Curriculum {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String title; // Name der Aufgabe
 
@@ -0,0 +1,55 @@
+package de.dreamteam.todolist.entity;
+
+import de.dreamteam.todolist.model.EmailStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Ausgehende E-Mail, in derselben Transaktion wie die fachliche Änderung geschrieben und vom
+// EmailDispatcher im Hintergrund verschickt. next_attempt_at dient zugleich als Lease beim Versand.
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class EmailOutbox {
+
+    @Id
+    // Sequenz statt IDENTITY, damit Hibernate INSERTs per JDBC-Batch bündeln kann (z.B. für Zusammenfassungen)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    @SequenceGenerator(name = "email_outbox_seq", sequenceName = "email_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Column(name = "body", nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "status", nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private EmailStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+}
@@ -2,6 +2,9 @@ package de.dreamteam.todolist.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -13,11 +16,18 @@ import java.util.Set;
 @NoArgsConstructor @AllArgsConstructor
 @Builder
 @Table(name = "projects")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "project")
 public class Project {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String title;
 
@@ -28,8 +38,11 @@ public class Project {
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
+    // Nur die Mitgliederliste wird gecacht; die Aufgaben sind keine gecachte Entität,
+    // ein Collection-Cache würde sie danach einzeln nachladen
     @Builder.Default
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "project-users")
     @JoinTable(
             name = "project_users",
             joinColumns = @JoinColumn(name = "project_id"),
@@ -41,8 +54,7 @@ public class Project {
     @OneToMany(
             mappedBy = "project",
             cascade = CascadeType.ALL,
-            orphanRemoval = true,
-            fetch = FetchType.EAGER
+            orphanRemoval = true
     )
     private List<ToDo> toDos = new ArrayList<>();
 }
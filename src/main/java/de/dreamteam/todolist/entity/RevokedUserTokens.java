@@ -0,0 +1,31 @@
+package de.dreamteam.todolist.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Alle Zugriffstokens eines Benutzers, die bis notBefore ausgestellt wurden, sind widerrufen
+// (Passwortwechsel, Kontolöschung). Bewusst ohne Fremdschlüssel, da der Eintrag die Löschung
+// des Benutzers überdauern muss; wird nach Ablauf der Token-Lebensdauer gelöscht
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "revoked_user_tokens", indexes = {
+        @Index(name = "idx_revoked_user_tokens_expires_at", columnList = "expires_at")
+})
+public class RevokedUserTokens {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "not_before", nullable = false)
+    private Instant notBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
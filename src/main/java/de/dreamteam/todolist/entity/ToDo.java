@@ -3,6 +3,7 @@ package de.dreamteam.todolist.entity;
 import de.dreamteam.todolist.model.ToDoStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -14,14 +15,25 @@ import java.util.List;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "todo")
+@Table(name = "todo", indexes = {
+        @Index(name = "idx_todo_status_end_date", columnList = "status, endDate"),
+        @Index(name = "idx_todo_project_status_end_date", columnList = "project_id, status, endDate")
+})
 public class ToDo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequenz statt IDENTITY, damit Hibernate INSERTs per JDBC-Batch bündeln kann
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_seq")
+    @SequenceGenerator(name = "todo_seq", sequenceName = "todo_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    // Wird bei jeder Änderung erhöht und dient zusätzlich als Grundlage für ETags
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "title")
     private String title;
 
@@ -48,6 +60,13 @@ public class ToDo {
     @OneToMany(mappedBy = "toDo")
     private List<ToDoCurriculum> toDoCurriculumList = new ArrayList<>();
 
+    // Namen wie bisher von Hibernate erzeugt; der Index dient den Abfragen über alle ToDos eines Benutzers
     @ManyToMany
+    @JoinTable(
+            name = "todo_user_list",
+            joinColumns = @JoinColumn(name = "to_do_id"),
+            inverseJoinColumns = @JoinColumn(name = "user_list_id"),
+            indexes = @Index(name = "idx_todo_user_list_user", columnList = "user_list_id, to_do_id")
+    )
     private List<User> userList = new ArrayList<>();
 }
\ No newline at end of file
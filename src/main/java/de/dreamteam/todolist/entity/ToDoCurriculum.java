@@ -2,6 +2,7 @@ package de.dreamteam.todolist.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
@@ -11,14 +12,23 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "todo_curriculum")
+@Table(name = "todo_curriculum", indexes = {
+        @Index(name = "idx_todo_curriculum_curriculum_todo", columnList = "curriculum_id, todo_id"),
+        @Index(name = "idx_todo_curriculum_todo", columnList = "todo_id")
+})
 
 public class ToDoCurriculum {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_curriculum_seq")
+    @SequenceGenerator(name = "todo_curriculum_seq", sequenceName = "todo_curriculum_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "start_date", nullable = false)
     private LocalDate startDate;
 
@@ -1,9 +1,11 @@
 package de.dreamteam.todolist.entity;
 
+import de.dreamteam.todolist.model.DigestFrequency;
 import jakarta.persistence.*;
 import lombok.*;
-
-import java.time.LocalDateTime;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Getter
@@ -11,7 +13,11 @@ import java.time.LocalDateTime;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_digest_frequency", columnList = "digest_frequency, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,27 +41,9 @@ public class User {
     @Column(name = "enabled")
     private boolean enabled;
 
-    @Column(name = "verification_token")
-    private String verificationToken;
-
-    @Column(name = "verification_token_expiry")
-    private LocalDateTime verificationTokenExpiry;
-
-    @Column(name = "verification_attempts")
-    private Integer verificationAttempts;
-
-    @Column(name = "verification_attempts_timestamp")
-    private LocalDateTime verificationAttemptsTimestamp;
-
-    @Column(name = "reset_token")
-    private String resetToken;
-
-    @Column(name = "reset_token_expiry")
-    private LocalDateTime resetTokenExpiry;
-
-    @Column(name = "password_reset_attempts")
-    private Integer passwordResetAttempts;
-
-    @Column(name = "reset_attempts_timestamp")
-    private LocalDateTime resetAttemptsTimestamp;
+    // null wird wie NONE behandelt
+    @Column(name = "digest_frequency", length = 10)
+    @ColumnDefault("'NONE'")
+    @Enumerated(EnumType.STRING)
+    private DigestFrequency digestFrequency;
 }
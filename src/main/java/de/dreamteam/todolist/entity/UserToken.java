@@ -0,0 +1,45 @@
+package de.dreamteam.todolist.entity;
+
+import de.dreamteam.todolist.model.TokenPurpose;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+// Einmal-Token für Kontobestätigung und Passwort-Reset. Gespeichert wird nur der SHA-256-Hash,
+// das Token selbst kennt nur der Empfänger der E-Mail.
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "user_tokens", indexes = {
+        @Index(name = "idx_user_tokens_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_user_tokens_user_purpose", columnList = "user_id, purpose"),
+        @Index(name = "idx_user_tokens_expires_at", columnList = "expires_at")
+})
+public class UserToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "purpose", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private TokenPurpose purpose;
+
+    // Wird der Benutzer gelöscht, verschwinden seine Tokens mit
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
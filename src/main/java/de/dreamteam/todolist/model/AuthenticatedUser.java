@@ -0,0 +1,27 @@
+package de.dreamteam.todolist.model;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * Principal eines angemeldeten Benutzers. Enthält zusätzlich die Benutzer-ID, damit die
+ * Services den Benutzer nicht bei jeder Anfrage über den Benutzernamen nachladen müssen.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+}
@@ -0,0 +1,8 @@
+package de.dreamteam.todolist.model;
+
+// Wie oft ein Benutzer die Zusammenfassung fälliger Aufgaben per E-Mail erhält
+public enum DigestFrequency {
+    NONE,
+    DAILY,
+    WEEKLY
+}
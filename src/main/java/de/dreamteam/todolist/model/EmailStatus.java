@@ -0,0 +1,8 @@
+package de.dreamteam.todolist.model;
+
+// PENDING: wartet auf Versand oder erneuten Versuch; DEAD: endgültig fehlgeschlagen, nur noch zur Analyse
+public enum EmailStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
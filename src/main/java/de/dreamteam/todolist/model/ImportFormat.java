@@ -0,0 +1,6 @@
+package de.dreamteam.todolist.model;
+
+public enum ImportFormat {
+    CSV,
+    JSON
+}
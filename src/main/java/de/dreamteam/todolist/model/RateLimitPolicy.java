@@ -0,0 +1,30 @@
+package de.dreamteam.todolist.model;
+
+/**
+ * Grenzwerte für die Auth-Endpunkte. Gezählt wird immer je Client-IP, bei Policies mit
+ * {@code accountKey} zusätzlich je Benutzername bzw. E-Mail.
+ * Konfiguration unter {@code app.rate-limit.<key>.*}.
+ */
+public enum RateLimitPolicy {
+    LOGIN("login", true),
+    FORGOT_PASSWORD("forgot-password", true),
+    RESET_PASSWORD("reset-password", false),
+    VERIFY("verify", false),
+    RESEND_VERIFICATION("resend-verification", true);
+
+    private final String key;
+    private final boolean accountKey;
+
+    RateLimitPolicy(String key, boolean accountKey) {
+        this.key = key;
+        this.accountKey = accountKey;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public boolean hasAccountKey() {
+        return accountKey;
+    }
+}
@@ -0,0 +1,7 @@
+package de.dreamteam.todolist.model;
+
+// SESSION: Anmeldung über die HTTP-Session; TOKEN: zustandslos über ein signiertes Bearer-Token
+public enum SecurityMode {
+    SESSION,
+    TOKEN
+}
@@ -0,0 +1,8 @@
+package de.dreamteam.todolist.model;
+
+public enum ToDoOperationType {
+    CREATE,
+    UPDATE,
+    STATUS,
+    DELETE
+}
@@ -0,0 +1,16 @@
+package de.dreamteam.todolist.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ToDoSortKey {
+    ID("id"),
+    TITLE("title"),
+    START_DATE("startDate"),
+    END_DATE("endDate"),
+    STATUS("status");
+
+    private final String property;
+}
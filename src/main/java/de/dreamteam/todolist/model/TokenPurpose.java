@@ -0,0 +1,6 @@
+package de.dreamteam.todolist.model;
+
+public enum TokenPurpose {
+    VERIFICATION,
+    PASSWORD_RESET
+}
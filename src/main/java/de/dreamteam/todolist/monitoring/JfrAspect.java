@@ -0,0 +1,86 @@
+package de.dreamteam.todolist.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * JFR-Ereignisse für Service-Methoden und Repository-Aufrufe. Spring AOP sieht nur Aufrufe über den Proxy;
+ * Aufrufe innerhalb eines Services müssen bei Bedarf selbst ein {@link JfrEvents.ServiceEvent} erzeugen.
+ */
+@Aspect
+@Component
+public class JfrAspect {
+
+    private static final String REPOSITORY_PACKAGE = "de.dreamteam.todolist.repository.";
+
+    @Around("execution(public * de.dreamteam.todolist.service..*(..)) "
+            + "&& (@within(org.springframework.stereotype.Service) || within(de.dreamteam.todolist.service.CurrentUser))")
+    public Object service(ProceedingJoinPoint joinPoint) throws Throwable {
+        JfrEvents.ServiceEvent event = new JfrEvents.ServiceEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        event.method = joinPoint.getSignature().getName();
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            event.finish();
+        }
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        JfrEvents.RepositoryEvent event = new JfrEvents.RepositoryEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repositoryName(joinPoint);
+                event.method = joinPoint.getSignature().getName();
+                event.rows = rows(result);
+                event.userId = JfrEvents.currentUserId();
+                event.commit();
+            }
+        }
+    }
+
+    // Geerbte Methoden wie findById sind in CrudRepository deklariert; gesucht ist das Interface der Anwendung
+    private static String repositoryName(ProceedingJoinPoint joinPoint) {
+        return Arrays.stream(joinPoint.getThis().getClass().getInterfaces())
+                .filter(type -> type.getName().startsWith(REPOSITORY_PACKAGE))
+                .map(Class::getSimpleName)
+                .findFirst()
+                .orElseGet(() -> joinPoint.getSignature().getDeclaringType().getSimpleName());
+    }
+
+    private static long rows(Object result) {
+        return switch (result) {
+            case null -> 0;
+            case Collection<?> collection -> collection.size();
+            case Slice<?> slice -> slice.getNumberOfElements();
+            case Optional<?> optional -> optional.isPresent() ? 1 : 0;
+            case Number number -> number.longValue();
+            case Boolean _ -> 1;
+            case Iterable<?> _ -> -1;
+            case Stream<?> _ -> -1;
+            default -> 1;
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package de.dreamteam.todolist.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.dreamteam.todolist.config.SqlRequestStatistics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Erzeugt die JFR-Ereignisse der HTTP-Ebene: die gesamte Anfrage, die Spring-Security-Kette und die
+ * JSON-Serialisierung der Antwort. Die Sicherheitskette wird von zwei Filtern direkt davor und
+ * direkt dahinter eingerahmt; erreicht die Anfrage den inneren Filter nicht, wurde sie abgewiesen.
+ */
+@Configuration
+public class JfrConfig {
+
+    private static final String SECURITY_EVENT_ATTRIBUTE = JfrConfig.class.getName() + ".securityEvent";
+    private static final String USER_ID_ATTRIBUTE = JfrConfig.class.getName() + ".userId";
+
+    // Innerhalb von SqlBudgetFilter, damit die Zahl der SQL-Anweisungen noch verfügbar ist
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> jfrRequestFilter() {
+        return registration("jfrRequestFilter", new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                JfrEvents.RequestEvent event = new JfrEvents.RequestEvent();
+                if (!event.isEnabled()) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                event.begin();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.method = request.getMethod();
+                        event.endpoint = endpoint(request);
+                        event.status = response.getStatus();
+                        event.userId = request.getAttribute(USER_ID_ATTRIBUTE) instanceof Long userId ? userId : 0;
+                        event.sqlStatements = SqlRequestStatistics.current()
+                                .map(SqlRequestStatistics::statements)
+                                .orElse(0);
+                        event.commit();
+                    }
+                }
+            }
+        }, Ordered.HIGHEST_PRECEDENCE + 1);
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> jfrSecurityStartFilter() {
+        return registration("jfrSecurityStartFilter", new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                JfrEvents.SecurityEvent event = new JfrEvents.SecurityEvent();
+                if (!event.isEnabled()) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                event.begin();
+                request.setAttribute(SECURITY_EVENT_ATTRIBUTE, event);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    // Noch vorhanden, wenn die Kette die Anfrage nicht weitergereicht hat
+                    if (request.getAttribute(SECURITY_EVENT_ATTRIBUTE) != null) {
+                        request.removeAttribute(SECURITY_EVENT_ATTRIBUTE);
+                        commitSecurityEvent(event, request, false);
+                    }
+                }
+            }
+        }, SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> jfrSecurityEndFilter() {
+        return registration("jfrSecurityEndFilter", new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                // Nach der Kette ist der Benutzer bekannt; der SecurityContext wird danach wieder geleert
+                long userId = JfrEvents.currentUserId();
+                request.setAttribute(USER_ID_ATTRIBUTE, userId);
+                if (request.getAttribute(SECURITY_EVENT_ATTRIBUTE) instanceof JfrEvents.SecurityEvent event) {
+                    request.removeAttribute(SECURITY_EVENT_ATTRIBUTE);
+                    commitSecurityEvent(event, request, true);
+                }
+                chain.doFilter(request, response);
+            }
+        }, SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+    }
+
+    // Ersetzt den Standard-Converter von Spring Boot, misst aber nur writeInternal
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                JfrEvents.SerializationEvent event = new JfrEvents.SerializationEvent();
+                event.begin();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.type = object.getClass().getSimpleName();
+                        event.elements = object instanceof Collection<?> collection ? collection.size() : 1;
+                        event.commit();
+                    }
+                }
+            }
+        };
+    }
+
+    private static void commitSecurityEvent(JfrEvents.SecurityEvent event, HttpServletRequest request, boolean passed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = request.getRequestURI();
+            event.userId = JfrEvents.currentUserId();
+            event.passed = passed;
+            event.commit();
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        return request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+                ? pattern
+                : request.getRequestURI();
+    }
+
+    private static FilterRegistrationBean<OncePerRequestFilter> registration(String name, OncePerRequestFilter filter,
+                                                                            int order) {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setName(name);
+        registration.setOrder(order);
+        return registration;
+    }
+}
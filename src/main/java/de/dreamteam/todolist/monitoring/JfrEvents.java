@@ -0,0 +1,140 @@
+package de.dreamteam.todolist.monitoring;
+
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Eigene JFR-Ereignisse der Anwendung, Kategorie TodoList. Solange keine Aufzeichnung läuft
+ * (siehe {@link JfrRecordingEndpoint}), kosten sie nur die Prüfung isEnabled(). In JDK Mission Control
+ * liegen Anfrage, Sicherheitskette, Services, Repositories und Serialisierung desselben Threads
+ * übereinander, so dass sich die Zeit einer langsamen Anfrage den Phasen zuordnen lässt.
+ */
+public final class JfrEvents {
+
+    private static final String CATEGORY = "TodoList";
+
+    private JfrEvents() {
+    }
+
+    @Name("de.dreamteam.todolist.Request")
+    @Label("HTTP Request")
+    @Category({CATEGORY, "HTTP"})
+    @StackTrace(false)
+    static class RequestEvent extends Event {
+
+        @Label("Method")
+        String method;
+
+        @Label("Endpoint")
+        @Description("Route der Anfrage, z.B. /todo-list-api/todos/{toDoId}")
+        String endpoint;
+
+        @Label("Status")
+        int status;
+
+        @Label("User Id")
+        long userId;
+
+        @Label("SQL Statements")
+        int sqlStatements;
+    }
+
+    @Name("de.dreamteam.todolist.Security")
+    @Label("Security Filter Chain")
+    @Category({CATEGORY, "HTTP"})
+    @StackTrace(false)
+    static class SecurityEvent extends Event {
+
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("User Id")
+        long userId;
+
+        @Label("Passed")
+        @Description("false, wenn die Kette die Anfrage abgewiesen oder selbst beantwortet hat")
+        boolean passed;
+    }
+
+    @Name("de.dreamteam.todolist.Service")
+    @Label("Service Method")
+    @Category({CATEGORY, "Service"})
+    @StackTrace(false)
+    public static class ServiceEvent extends Event {
+
+        @Label("Class")
+        String className;
+
+        @Label("Method")
+        String method;
+
+        @Label("User Id")
+        long userId;
+
+        // Für Aufrufe innerhalb eines Services, die am Proxy und damit am Aspekt vorbeigehen
+        public static ServiceEvent begin(String className, String method) {
+            ServiceEvent event = new ServiceEvent();
+            event.className = className;
+            event.method = method;
+            event.begin();
+            return event;
+        }
+
+        public void finish() {
+            end();
+            if (shouldCommit()) {
+                userId = currentUserId();
+                commit();
+            }
+        }
+    }
+
+    @Name("de.dreamteam.todolist.Repository")
+    @Label("Repository Call")
+    @Category({CATEGORY, "Repository"})
+    @StackTrace(false)
+    static class RepositoryEvent extends Event {
+
+        @Label("Repository")
+        String repository;
+
+        @Label("Method")
+        String method;
+
+        @Label("Rows")
+        @Description("Gelieferte oder geänderte Zeilen, -1 wenn unbekannt (z.B. Stream)")
+        long rows;
+
+        @Label("User Id")
+        long userId;
+    }
+
+    @Name("de.dreamteam.todolist.Serialization")
+    @Label("JSON Serialization")
+    @Category({CATEGORY, "HTTP"})
+    @StackTrace(false)
+    static class SerializationEvent extends Event {
+
+        @Label("Type")
+        String type;
+
+        @Label("Elements")
+        @Description("Anzahl der Elemente bei Listen, sonst 1")
+        int elements;
+    }
+
+    // 0 für anonyme Anfragen und Hintergrund-Threads
+    static long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.getId()
+                : 0;
+    }
+}
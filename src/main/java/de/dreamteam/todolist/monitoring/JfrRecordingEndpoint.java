@@ -0,0 +1,138 @@
+package de.dreamteam.todolist.monitoring;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Betriebs-Endpunkt für eine fortlaufende JFR-Aufzeichnung, standardmäßig nur über JMX freigegeben.
+ * Die Aufzeichnung ist durch max-age und max-size begrenzt; dump schreibt den aktuellen Stand in eine
+ * Datei unter app.jfr.dump-dir, die sich in JDK Mission Control öffnen lässt.
+ * <p>
+ * Über HTTP freigegeben: GET /actuator/jfr (Status), POST /actuator/jfr (start), DELETE /actuator/jfr
+ * (stop) und POST /actuator/jfr/{label} (dump). dump braucht den Selektor, da sich zwei schreibende
+ * Operationen ohne Selektor dieselbe Zuordnung hätten und Spring MVC sie nicht abbilden kann.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final String RECORDING_NAME = "todolist";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final Pattern LABEL = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    // "default" (ca. 1 % Overhead) oder "profile" (mehr Details, mehr Overhead)
+    @Value("${app.jfr.settings}")
+    private String settings;
+
+    @Value("${app.jfr.max-age}")
+    private Duration maxAge;
+
+    @Value("${app.jfr.max-size}")
+    private DataSize maxSize;
+
+    @Value("${app.jfr.dump-dir}")
+    private Path dumpDir;
+
+    @Value("${app.jfr.start-on-startup}")
+    private boolean startOnStartup;
+
+    private Recording recording;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startOnStartup() throws IOException, ParseException {
+        if (startOnStartup) {
+            start();
+        }
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", isRunning());
+        status.put("settings", settings);
+        status.put("maxAge", maxAge.toString());
+        status.put("maxSize", maxSize.toString());
+        if (recording != null) {
+            status.put("startTime", String.valueOf(recording.getStartTime()));
+            status.put("size", recording.getSize());
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start() throws IOException, ParseException {
+        if (!isRunning()) {
+            Recording newRecording = new Recording(Configuration.getConfiguration(settings));
+            newRecording.setName(RECORDING_NAME);
+            newRecording.setToDisk(true);
+            newRecording.setMaxAge(maxAge);
+            newRecording.setMaxSize(maxSize.toBytes());
+            newRecording.start();
+            recording = newRecording;
+            log.info("Started JFR recording with settings '{}', max age {}, max size {}", settings, maxAge, maxSize);
+        }
+        return status();
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            log.info("Stopped JFR recording");
+        }
+        return status();
+    }
+
+    // Das Label (z.B. ein Ticket) geht nur geprüft in den Dateinamen ein, damit über den Endpunkt keine
+    // beliebigen Pfade beschrieben werden
+    @WriteOperation
+    public synchronized Map<String, Object> dump(@Selector String label) throws IOException {
+        if (!LABEL.matcher(label).matches()) {
+            return Map.of("error", "Invalid label, allowed are up to 64 letters, digits, '-' and '_'");
+        }
+        if (!isRunning()) {
+            return Map.of("error", "No JFR recording is running");
+        }
+        Files.createDirectories(dumpDir);
+        Path file = dumpDir.resolve(RECORDING_NAME + "-" + label + "-"
+                + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        recording.dump(file);
+        log.info("Dumped JFR recording to {}", file);
+        return Map.of("file", file.toAbsolutePath().toString(), "bytes", Files.size(file));
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        stop();
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+}
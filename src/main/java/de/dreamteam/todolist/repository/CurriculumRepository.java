@@ -1,13 +1,28 @@
 package de.dreamteam.todolist.repository;
 
 import de.dreamteam.todolist.entity.Curriculum;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CurriculumRepository extends JpaRepository<Curriculum, Long> {
+    // Ergebnis im Query-Cache; wird bei jeder Änderung an der Tabelle curriculum verworfen
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "curriculum-by-user")
+    })
     Optional<Curriculum> findByUser_Id(Long userId);
+
+    @Query("select c.id from Curriculum c where c.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
 
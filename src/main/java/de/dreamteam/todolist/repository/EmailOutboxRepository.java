@@ -0,0 +1,48 @@
+package de.dreamteam.todolist.repository;
+
+import de.dreamteam.todolist.entity.EmailOutbox;
+import de.dreamteam.todolist.model.EmailStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // SKIP LOCKED: mehrere Knoten können gleichzeitig abholen, ohne dieselben Zeilen zu erwischen
+    @Query(value = "select id from email_outbox where status = 'PENDING' and next_attempt_at <= :now " +
+            "order by next_attempt_at limit :limit for update skip locked", nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") Instant now, @Param("limit") int limit);
+
+    // Verschiebt den nächsten Versuch um die Lease-Dauer; stürzt der Knoten ab, wird die Mail danach erneut fällig
+    @Modifying
+    @Query("update EmailOutbox e set e.nextAttemptAt = :leaseUntil where e.id in :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") Instant leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox e set e.status = :status, e.sentAt = :sentAt, e.attempts = e.attempts + 1, " +
+            "e.lastError = null where e.id = :id")
+    int markSent(@Param("id") Long id, @Param("status") EmailStatus status, @Param("sentAt") Instant sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox e set e.status = :status, e.attempts = :attempts, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError where e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("status") EmailStatus status, @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") Instant nextAttemptAt, @Param("lastError") String lastError);
+
+    @Transactional
+    @Modifying
+    @Query("delete from EmailOutbox e where e.status = :status and e.sentAt < :before")
+    int deleteSentBefore(@Param("status") EmailStatus status, @Param("before") Instant before);
+
+    long countByStatus(EmailStatus status);
+}
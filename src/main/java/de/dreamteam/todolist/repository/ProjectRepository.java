@@ -2,13 +2,35 @@ package de.dreamteam.todolist.repository;
 
 import de.dreamteam.todolist.entity.Project;
 import de.dreamteam.todolist.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
+    // Besitzer im selben Select, sonst lädt Hibernate ihn (EAGER) ohne Cache-Treffer je Projekt einzeln nach
+    @EntityGraph(attributePaths = "owner")
     List<Project> findDistinctByOwnerOrUsersContains(User owner, User user);
+
+    // Gleiche Projektmenge wie findDistinctByOwnerOrUsersContains, aber nur als Stempel für das ETag
+    @Query("""
+            select new de.dreamteam.todolist.repository.VersionStamp(
+                count(p), coalesce(sum(p.id), 0L), coalesce(sum(p.version), 0L))
+            from Project p
+            where p.owner.id = :userId or exists (select 1 from p.users u where u.id = :userId)
+            """)
+    VersionStamp findVersionStampByUserId(@Param("userId") Long userId);
+
+    // IDs der Projekte aus der Liste, bei denen der Benutzer Besitzer oder Mitglied ist
+    @Query("""
+            select distinct p.id from Project p left join p.users u
+            where p.id in :ids and (p.owner.id = :userId or u.id = :userId)
+            """)
+    List<Long> findAccessibleIds(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
 }
 
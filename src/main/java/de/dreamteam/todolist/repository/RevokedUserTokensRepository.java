@@ -0,0 +1,24 @@
+package de.dreamteam.todolist.repository;
+
+import de.dreamteam.todolist.entity.RevokedUserTokens;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedUserTokensRepository extends JpaRepository<RevokedUserTokens, Long> {
+
+    @Query("select r from RevokedUserTokens r where r.expiresAt > :now")
+    List<RevokedUserTokens> findActive(@Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedUserTokens r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,13 +1,76 @@
 package de.dreamteam.todolist.repository;
 
 import de.dreamteam.todolist.entity.ToDoCurriculum;
+import de.dreamteam.todolist.model.ToDoStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ToDoCurriculumRepository extends JpaRepository<ToDoCurriculum, Long> {
     Optional<ToDoCurriculum> findByCurriculum_IdAndToDo_Id(Long curriculumId, Long toDoId);
-}
 
+    // Nur die Verknüpfungen eines ToDos, ohne Lehrpläne und Benutzer mitzuladen
+    @Query("select tc.id as id, tc.curriculum.id as curriculumId from ToDoCurriculum tc where tc.toDo.id = :toDoId")
+    List<CurriculumLink> findLinksByToDoId(@Param("toDoId") Long toDoId);
+
+    // Lehrplan-IDs mehrerer ToDos in einer Abfrage, statt die Verknüpfungen je ToDo nachzuladen
+    @Query("""
+            select tc.toDo.id as toDoId, tc.curriculum.id as curriculumId
+            from ToDoCurriculum tc
+            where tc.toDo.id in :toDoIds
+            order by tc.curriculum.id
+            """)
+    List<ToDoCurriculumId> findCurriculumIdsByToDoIds(@Param("toDoIds") Collection<Long> toDoIds);
+
+    // Die Verknüpfungen gehören nicht zur Version des ToDos, daher eigene Stempel für die ETags
+    @Query("""
+            select new de.dreamteam.todolist.repository.VersionStamp(
+                count(tc), coalesce(sum(tc.id), 0L), coalesce(sum(tc.version), 0L))
+            from ToDoCurriculum tc join tc.toDo t join t.userList u
+            where u.id = :userId
+            """)
+    VersionStamp findVersionStampByToDoUserId(@Param("userId") Long userId);
+
+    @Query("""
+            select new de.dreamteam.todolist.repository.VersionStamp(
+                count(tc), coalesce(sum(tc.id), 0L), coalesce(sum(tc.version), 0L))
+            from ToDoCurriculum tc
+            where tc.curriculum.id = :curriculumId
+            """)
+    VersionStamp findVersionStampByCurriculumId(@Param("curriculumId") Long curriculumId);
+
+    @Modifying
+    @Query("delete from ToDoCurriculum tc where tc.toDo.id = :toDoId")
+    int deleteAllByToDoId(@Param("toDoId") Long toDoId);
+
+    // Lehrplan-Einträge mehrerer Benutzer bis zum Stichtag, deren Aufgabe noch offen ist
+    @Query("""
+            select c.user.id as userId, t.title as title, tc.endDate as endDate
+            from ToDoCurriculum tc join tc.curriculum c join tc.toDo t
+            where c.user.id in :userIds and t.status <> :excludedStatus and tc.endDate <= :dueBefore
+            order by c.user.id, tc.endDate, tc.id
+            """)
+    List<ToDoRepository.DigestItem> findDigestItems(@Param("userIds") Collection<Long> userIds,
+                                                    @Param("excludedStatus") ToDoStatus excludedStatus,
+                                                    @Param("dueBefore") LocalDate dueBefore);
+
+    interface ToDoCurriculumId {
+        Long getToDoId();
+
+        Long getCurriculumId();
+    }
+
+    interface CurriculumLink {
+        Long getId();
+
+        Long getCurriculumId();
+    }
+}
@@ -1,9 +1,162 @@
 package de.dreamteam.todolist.repository;
 
 import de.dreamteam.todolist.entity.ToDo;
+import de.dreamteam.todolist.model.ToDoStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface ToDoRepository extends JpaRepository<ToDo, Long> {
+public interface ToDoRepository extends JpaRepository<ToDo, Long>, JpaSpecificationExecutor<ToDo> {
+
+    String USER_TODO_ROW_SELECT = """
+            select new de.dreamteam.todolist.repository.UserTodoRow(
+                t.id, t.title, t.creator, t.description, t.startDate, t.endDate, t.status, p.id,
+                listagg(cast(tc.curriculum.id as String), ',') within group (order by tc.curriculum.id))
+            from ToDo t
+                join t.userList u
+                left join t.project p
+                left join t.toDoCurriculumList tc
+            """;
+
+    String USER_TODO_ROW_GROUP_BY = """
+             group by t.id, t.title, t.creator, t.description, t.startDate, t.endDate, t.status, p.id
+             order by t.id
+            """;
+
+    // Alle ToDos des Benutzers samt Projekt- und Lehrplan-IDs in einer einzigen Abfrage, ohne Entities zu laden
+    @Query(USER_TODO_ROW_SELECT + " where u.id = :userId" + USER_TODO_ROW_GROUP_BY)
+    List<UserTodoRow> findRowsByUserId(@Param("userId") Long userId);
+
+    String VERSION_STAMP_SELECT = """
+            select new de.dreamteam.todolist.repository.VersionStamp(
+                count(t), coalesce(sum(t.id), 0L), coalesce(sum(t.version), 0L))
+            """;
+
+    @Query(VERSION_STAMP_SELECT + " from ToDo t join t.userList u where u.id = :userId")
+    VersionStamp findVersionStampByUserId(@Param("userId") Long userId);
+
+    @Query(VERSION_STAMP_SELECT + " from ToDo t where t.project.id = :projectId")
+    VersionStamp findVersionStampByProjectId(@Param("projectId") Long projectId);
+
+    // Aufgaben aller Projekte, in denen der Benutzer Besitzer oder Mitglied ist
+    @Query(VERSION_STAMP_SELECT + """
+             from ToDo t
+             where t.project.id in (
+                 select p.id from Project p
+                 where p.owner.id = :userId or exists (select 1 from p.users u where u.id = :userId))
+            """)
+    VersionStamp findVersionStampByProjectMemberId(@Param("userId") Long userId);
+
+    // Projekt und Besitzer werden mitgeladen, sonst folgt je Projekt eine eigene Abfrage (EAGER)
+    @Query("""
+            select t from ToDo t join t.userList u left join fetch t.project p left join fetch p.owner
+            where u.id = :userId and t.id in :ids
+            """)
+    List<ToDo> findAllByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    List<ToDo> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("select t.id as toDoId, u.id as userId from ToDo t join t.userList u where t.id in :ids")
+    List<ToDoUserId> findUserIdsByToDoIds(@Param("ids") Collection<Long> ids);
+
+    // Aufgaben mehrerer Projekte in einer Abfrage, für die Projektliste
+    @Query("""
+            select t.project.id as projectId, t.id as id, t.title as title,
+                   t.startDate as startDate, t.endDate as endDate
+            from ToDo t
+            where t.project.id in :projectIds
+            order by t.project.id, t.id
+            """)
+    List<ProjectTaskView> findTasksByProjectIds(@Param("projectIds") Collection<Long> projectIds);
+
+    @Query("""
+            select t.project.id as projectId, t.id as id, t.title as title,
+                   t.startDate as startDate, t.endDate as endDate
+            from ToDo t
+            where t.project.id = :projectId and t.id > :afterId
+            order by t.id
+            """)
+    List<ProjectTaskView> findTaskPageByProjectId(@Param("projectId") Long projectId,
+                                                  @Param("afterId") Long afterId,
+                                                  Limit limit);
+
+    @Query("""
+            select t.project.id as projectId, t.status as status, count(t) as count
+            from ToDo t
+            where t.project.id in :projectIds
+            group by t.project.id, t.status
+            """)
+    List<ProjectStatusCount> countByProjectIdsAndStatus(@Param("projectIds") Collection<Long> projectIds);
+
+    // Für den Export: wird zeilenweise über einen Cursor gelesen, statt alles in eine Liste zu laden
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select t from ToDo t join t.userList u left join fetch t.project p left join fetch p.owner
+            where u.id = :userId order by t.id
+            """)
+    Stream<ToDo> streamAllByUserId(@Param("userId") Long userId);
+
+    // Keyset-Paginierung: liefert die nächsten ToDos des Benutzers nach der ID afterId
+    @Query(USER_TODO_ROW_SELECT + " where u.id = :userId and t.id > :afterId" + USER_TODO_ROW_GROUP_BY)
+    List<UserTodoRow> findRowPageByUserId(@Param("userId") Long userId, @Param("afterId") Long afterId, Limit limit);
+
+    // Offene ToDos mehrerer Benutzer bis zum Stichtag, für die Zusammenfassung per E-Mail
+    @Query("""
+            select u.id as userId, t.title as title, t.endDate as endDate
+            from ToDo t join t.userList u
+            where u.id in :userIds and t.status <> :excludedStatus and t.endDate <= :dueBefore
+            order by u.id, t.endDate, t.id
+            """)
+    List<DigestItem> findDigestItems(@Param("userIds") Collection<Long> userIds,
+                                     @Param("excludedStatus") ToDoStatus excludedStatus,
+                                     @Param("dueBefore") LocalDate dueBefore);
+
+    interface ProjectTaskView {
+        Long getProjectId();
+
+        Long getId();
+
+        String getTitle();
+
+        LocalDate getStartDate();
+
+        LocalDate getEndDate();
+    }
+
+    interface ProjectStatusCount {
+        Long getProjectId();
+
+        ToDoStatus getStatus();
+
+        Long getCount();
+    }
+
+    interface DigestItem {
+        Long getUserId();
+
+        String getTitle();
+
+        LocalDate getEndDate();
+    }
+
+    interface ToDoUserId {
+        Long getToDoId();
+
+        Long getUserId();
+    }
 }
@@ -0,0 +1,63 @@
+package de.dreamteam.todolist.repository;
+
+import de.dreamteam.todolist.entity.ToDo;
+import de.dreamteam.todolist.entity.ToDoCurriculum;
+import de.dreamteam.todolist.model.ToDoStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+// Bausteine für die Filterabfrage der ToDos, werden im ToDoService kombiniert
+public final class ToDoSpecifications {
+
+    private ToDoSpecifications() {
+    }
+
+    public static Specification<ToDo> visibleTo(Long userId) {
+        return (root, query, cb) -> cb.equal(root.join("userList").get("id"), userId);
+    }
+
+    public static Specification<ToDo> statusIn(Collection<ToDoStatus> statuses) {
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<ToDo> startDateBetween(LocalDate from, LocalDate to) {
+        return (root, query, cb) -> dateBetween(cb, root.<LocalDate>get("startDate"), from, to);
+    }
+
+    public static Specification<ToDo> endDateBetween(LocalDate from, LocalDate to) {
+        return (root, query, cb) -> dateBetween(cb, root.<LocalDate>get("endDate"), from, to);
+    }
+
+    public static Specification<ToDo> inProject(Long projectId) {
+        return (root, query, cb) -> cb.equal(root.get("project").get("id"), projectId);
+    }
+
+    // EXISTS statt JOIN, damit ein ToDo nicht mehrfach im Ergebnis auftaucht
+    public static Specification<ToDo> inCurriculum(Long curriculumId) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<ToDoCurriculum> link = subquery.from(ToDoCurriculum.class);
+            subquery.select(link.get("id"))
+                    .where(cb.equal(link.get("toDo"), root),
+                            cb.equal(link.get("curriculum").get("id"), curriculumId));
+            return cb.exists(subquery);
+        };
+    }
+
+    private static Predicate dateBetween(CriteriaBuilder cb, Path<LocalDate> path, LocalDate from, LocalDate to) {
+        if (from != null && to != null) {
+            return cb.between(path, from, to);
+        }
+        if (from != null) {
+            return cb.greaterThanOrEqualTo(path, from);
+        }
+        return cb.lessThanOrEqualTo(path, to);
+    }
+}
@@ -1,18 +1,38 @@
 package de.dreamteam.todolist.repository;
 
 import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.DigestFrequency;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     User findUserByUsername(String username);
 
     User findUserByEmail(String email);
 
-    User findUserByResetToken(String token);
+    void deleteByEmail(String email);
 
-    User findUserByVerificationToken(String token);
+    // Keyset-Paginierung über alle Empfänger der Zusammenfassung, nur die Spalten für die E-Mail
+    @Query("""
+            select u.id as id, u.email as email, u.firstName as firstName
+            from User u
+            where u.digestFrequency = :frequency and u.enabled = true and u.id > :afterId
+            order by u.id
+            """)
+    List<DigestRecipient> findDigestRecipients(@Param("frequency") DigestFrequency frequency,
+                                               @Param("afterId") Long afterId, Limit limit);
 
-    void deleteByEmail(String email);
+    interface DigestRecipient {
+        Long getId();
+
+        String getEmail();
+
+        String getFirstName();
+    }
 }
@@ -0,0 +1,22 @@
+package de.dreamteam.todolist.repository;
+
+import de.dreamteam.todolist.model.ToDoStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Projektion einer ToDo-Zeile mit genau den Spalten von UserTodoPayload.
+ * Die Lehrplan-IDs kommen bereits in der Abfrage aggregiert als kommagetrennte Liste.
+ */
+public record UserTodoRow(
+        Long id,
+        String title,
+        String creator,
+        String description,
+        LocalDate startDate,
+        LocalDate endDate,
+        ToDoStatus status,
+        Long projectId,
+        String curriculumIds
+) {
+}
@@ -0,0 +1,39 @@
+package de.dreamteam.todolist.repository;
+
+import de.dreamteam.todolist.entity.UserToken;
+import de.dreamteam.todolist.model.TokenPurpose;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserTokenRepository extends JpaRepository<UserToken, Long> {
+
+    // Über den eindeutigen Index auf token_hash, der Benutzer wird gleich mitgeladen
+    @Query("select t from UserToken t join fetch t.user where t.tokenHash = :tokenHash and t.purpose = :purpose")
+    Optional<UserToken> findByTokenHashAndPurpose(@Param("tokenHash") String tokenHash,
+                                                  @Param("purpose") TokenPurpose purpose);
+
+    boolean existsByUser_IdAndPurposeAndExpiresAtAfter(Long userId, TokenPurpose purpose, LocalDateTime now);
+
+    @Modifying
+    @Query("delete from UserToken t where t.user.id = :userId and t.purpose = :purpose")
+    int deleteByUserIdAndPurpose(@Param("userId") Long userId, @Param("purpose") TokenPurpose purpose);
+
+    @Query("select t.id from UserToken t where t.expiresAt < :now order by t.id")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from UserToken t where t.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
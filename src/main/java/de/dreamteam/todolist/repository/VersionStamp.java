@@ -0,0 +1,13 @@
+package de.dreamteam.todolist.repository;
+
+/**
+ * Kurzfassung des Zustands einer Menge von Zeilen: Anzahl, Summe der IDs und Summe der Versionen.
+ * Jedes Anlegen, Löschen oder Ändern einer Zeile verändert mindestens einen der Werte,
+ * daher eignet sich der Stempel als Grundlage für ETags, ohne die Zeilen selbst zu laden.
+ */
+public record VersionStamp(
+        Long count,
+        Long idSum,
+        Long versionSum
+) {
+}
@@ -0,0 +1,233 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.entity.RevokedToken;
+import de.dreamteam.todolist.entity.RevokedUserTokens;
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import de.dreamteam.todolist.model.SecurityMode;
+import de.dreamteam.todolist.repository.RevokedTokenRepository;
+import de.dreamteam.todolist.repository.RevokedUserTokensRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Zugriffstokens für den zustandslosen Modus (app.security.mode=token).
+ * Aufbau: {@code <key-id>.<payload>.<signature>}, Payload und Signatur Base64url-kodiert,
+ * signiert mit HMAC-SHA256. Die Prüfung erfolgt rein lokal; widerrufene Tokens stehen in einer
+ * kleinen Liste im Speicher, die regelmäßig aus der Datenbank aufgefrischt wird, damit ein Logout
+ * auf allen Knoten wirkt. Ebenso je Benutzer ein Zeitpunkt, bis zu dem ausgestellte Tokens nicht mehr
+ * gelten, z.B. nach einem Passwortwechsel oder der Löschung des Kontos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccessTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final List<SimpleGrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RevokedUserTokensRepository revokedUserTokensRepository;
+
+    @Value("${app.security.mode}")
+    private SecurityMode mode;
+
+    // Format: kid1=<Base64-Schlüssel>,kid2=<Base64-Schlüssel>; zum Rotieren neuen Schlüssel ergänzen,
+    // active-key-id umstellen und den alten nach Ablauf der Token-Lebensdauer entfernen
+    @Value("${app.security.token.keys}")
+    private String keysProperty;
+
+    @Value("${app.security.token.active-key-id}")
+    private String activeKeyId;
+
+    @Value("${app.security.token.ttl}")
+    private Duration ttl;
+
+    private final Map<String, SecretKeySpec> keys = new HashMap<>();
+    private volatile Set<String> revokedTokenIds = Set.of();
+    private final Set<String> locallyRevokedTokenIds = ConcurrentHashMap.newKeySet();
+    private volatile Map<Long, Instant> userNotBefore = Map.of();
+    private final Map<Long, Instant> locallyRevokedUsers = new ConcurrentHashMap<>();
+
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+
+    private record Claims(String tokenId, Long userId, Instant issuedAt, Instant expiresAt, String username) {
+    }
+
+    @PostConstruct
+    void loadKeys() {
+        if (mode != SecurityMode.TOKEN) {
+            return;
+        }
+        for (String entry : keysProperty.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalStateException("Invalid entry in app.security.token.keys: expected <kid>=<base64>");
+            }
+            byte[] secret = Base64.getDecoder().decode(parts[1].trim());
+            if (secret.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("Token key '" + parts[0].trim() + "' must have at least "
+                        + MIN_KEY_BYTES + " bytes");
+            }
+            keys.put(parts[0].trim(), new SecretKeySpec(secret, ALGORITHM));
+        }
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Active token key '" + activeKeyId + "' is not configured");
+        }
+        refreshRevocations();
+    }
+
+    public IssuedToken issue(AuthenticatedUser user) {
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Instant expiresAt = issuedAt.plus(ttl);
+        String payload = String.join(":", UUID.randomUUID().toString(), user.getId().toString(),
+                Long.toString(issuedAt.toEpochMilli()), Long.toString(expiresAt.getEpochSecond()), user.getUsername());
+        String signedPart = activeKeyId + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        String signature = ENCODER.encodeToString(sign(keys.get(activeKeyId), signedPart));
+        return new IssuedToken(signedPart + "." + signature, expiresAt);
+    }
+
+    // Ohne Datenbankzugriff: Signatur, Ablauf und Widerrufsliste werden lokal geprüft
+    public Optional<AuthenticatedUser> authenticate(String token) {
+        return parse(token)
+                .filter(claims -> !isRevoked(claims))
+                .map(claims -> new AuthenticatedUser(claims.userId(), claims.username(), "", AUTHORITIES));
+    }
+
+    public void revoke(String token) {
+        parse(token).ifPresent(claims -> {
+            locallyRevokedTokenIds.add(claims.tokenId());
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .tokenId(claims.tokenId())
+                    .expiresAt(claims.expiresAt())
+                    .build());
+        });
+    }
+
+    // Widerruft alle bisher ausgestellten Tokens des Benutzers; danach ausgestellte bleiben gültig
+    public void revokeAllForUser(Long userId) {
+        if (mode != SecurityMode.TOKEN) {
+            return;
+        }
+        Instant notBefore = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        locallyRevokedUsers.merge(userId, notBefore, AccessTokenService::latest);
+        revokedUserTokensRepository.save(RevokedUserTokens.builder()
+                .userId(userId)
+                .notBefore(notBefore)
+                .expiresAt(notBefore.plus(ttl))
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.token.revocation-refresh-ms}")
+    void refreshRevocations() {
+        if (mode != SecurityMode.TOKEN) {
+            return;
+        }
+        Instant now = Instant.now();
+        revokedTokenIds = Set.copyOf(revokedTokenRepository.findActiveTokenIds(now));
+        // Lokal widerrufene Tokens, die inzwischen in der Datenbank stehen, sind jetzt in der geladenen Liste
+        locallyRevokedTokenIds.removeAll(revokedTokenIds);
+
+        Map<Long, Instant> loaded = revokedUserTokensRepository.findActive(now).stream()
+                .collect(Collectors.toUnmodifiableMap(RevokedUserTokens::getUserId, RevokedUserTokens::getNotBefore));
+        userNotBefore = loaded;
+        locallyRevokedUsers.entrySet().removeIf(entry -> loaded.containsKey(entry.getKey())
+                && !entry.getValue().isAfter(loaded.get(entry.getKey())));
+    }
+
+    @Scheduled(fixedDelayString = "PT1H")
+    void purgeExpiredRevocations() {
+        if (mode != SecurityMode.TOKEN) {
+            return;
+        }
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now) + revokedUserTokensRepository.deleteExpired(now);
+        if (deleted > 0) {
+            log.info("Purged {} expired token revocations", deleted);
+        }
+    }
+
+    private boolean isRevoked(Claims claims) {
+        if (revokedTokenIds.contains(claims.tokenId()) || locallyRevokedTokenIds.contains(claims.tokenId())) {
+            return true;
+        }
+        Instant notBefore = latest(userNotBefore.get(claims.userId()), locallyRevokedUsers.get(claims.userId()));
+        return notBefore != null && !claims.issuedAt().isAfter(notBefore);
+    }
+
+    private static Instant latest(Instant first, Instant second) {
+        if (first == null || second == null) {
+            return first != null ? first : second;
+        }
+        return first.isAfter(second) ? first : second;
+    }
+
+    private Optional<Claims> parse(String token) {
+        if (mode != SecurityMode.TOKEN || token == null) {
+            return Optional.empty();
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        SecretKeySpec key = keys.get(parts[0]);
+        if (key == null) {
+            return Optional.empty();
+        }
+        try {
+            byte[] expected = sign(key, parts[0] + "." + parts[1]);
+            if (!MessageDigest.isEqual(expected, DECODER.decode(parts[2]))) {
+                return Optional.empty();
+            }
+            String[] fields = new String(DECODER.decode(parts[1]), StandardCharsets.UTF_8).split(":", 5);
+            if (fields.length != 5) {
+                return Optional.empty();
+            }
+            Instant issuedAt = Instant.ofEpochMilli(Long.parseLong(fields[2]));
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[3]));
+            if (!Instant.now().isBefore(expiresAt)) {
+                return Optional.empty();
+            }
+            return Optional.of(new Claims(fields[0], Long.valueOf(fields[1]), issuedAt, expiresAt, fields[4]));
+        } catch (IllegalArgumentException e) {
+            // Ungültiges Base64 oder Zahlenformat
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] sign(SecretKeySpec key, String data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC signing failed", e);
+        }
+    }
+}
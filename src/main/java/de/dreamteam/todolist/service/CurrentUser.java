@@ -0,0 +1,65 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+/**
+ * Zugriff auf den angemeldeten Benutzer innerhalb einer Anfrage.
+ * Die ID kommt direkt aus dem {@link AuthenticatedUser}; das Benutzer-Objekt wird höchstens
+ * einmal pro Anfrage über {@link UserService#getUserById(Long)} aus dem Second-Level-Cache geholt.
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentUser {
+
+    private final UserService userService;
+    private final EntityManager entityManager;
+
+    private User user;
+
+    public Long id() {
+        if (authentication().getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+        return user().getId();
+    }
+
+    // Aus dem Benutzer statt aus dem Principal, da sich der Benutzername während der Sitzung ändern kann
+    public String username() {
+        return user().getUsername();
+    }
+
+    // Für Zuordnungen reference() verwenden, das kommt ohne Datenbankzugriff aus
+    public User user() {
+        return find().orElseThrow(() -> new EntityNotFoundException("User not found"));
+    }
+
+    public Optional<User> find() {
+        if (user == null) {
+            user = authentication().getPrincipal() instanceof AuthenticatedUser principal
+                    ? userService.getUserById(principal.getId())
+                    // z.B. in Tests mit @WithMockUser, dort gibt es keine ID im Principal
+                    : userService.findUserByUsername(authentication().getName());
+        }
+        return Optional.ofNullable(user);
+    }
+
+    // Verweis auf den Benutzer ohne Datenbankzugriff, z.B. als Besitzer eines neuen Projekts
+    public User reference() {
+        return entityManager.getReference(User.class, id());
+    }
+
+    private static Authentication authentication() {
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -3,34 +3,29 @@ package de.dreamteam.todolist.service;
 import de.dreamteam.todolist.controller.payload.NewCurriculumPayload;
 import de.dreamteam.todolist.controller.payload.UpdateCurriculumPayload;
 import de.dreamteam.todolist.entity.Curriculum;
-import de.dreamteam.todolist.entity.User;
 import de.dreamteam.todolist.repository.CurriculumRepository;
+import de.dreamteam.todolist.repository.ToDoCurriculumRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import java.util.Optional;
 
 
 @Service
 @RequiredArgsConstructor
+@Timed("todolist.service")
 public class CurriculumService {
 
     private final CurriculumRepository curriculumRepository;
-    private final UserService userService;
+    private final ToDoCurriculumRepository toDoCurriculumRepository;
+    private final CurrentUser currentUser;
 
 
     // Erstellung eines neuen Lehrplans (Curriculum)
     public Curriculum createCurriculum(NewCurriculumPayload newPayload) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-        User currentUser = userService.findUserByUsername(currentUsername);
-        if (currentUser == null) {
-            throw new RuntimeException("User not found");
-        }
         Curriculum curriculum = Curriculum.builder()
                 .title(newPayload.title())
-                .user(currentUser)
+                .user(currentUser.reference())
                 .build();
         return curriculumRepository.save(curriculum);
     }
@@ -38,44 +33,39 @@ public class CurriculumService {
 
     // Abrufen des Lehrplans nach ID
     public Optional<Curriculum> getCurriculumForCurrentUser() {
-        // Извлекаем аутентифицированного пользователя
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-        User currentUser = userService.findUserByUsername(currentUsername);
-        if (currentUser == null) {
-            return Optional.empty();
-        }
-        return curriculumRepository.findByUser_Id(currentUser.getId());
+        // ID аутентифицированного пользователя берём из principal
+        return curriculumRepository.findByUser_Id(currentUser.id());
+    }
+
+
+    // Der Lehrplan selbst kommt aus dem Cache, seine Version reicht für das ETag
+    public String getCurriculumETag(Curriculum curriculum) {
+        return ETags.of("curriculum", curriculum.getId(), curriculum.getVersion());
+    }
+
+    public String getCurriculumToDosETag(Curriculum curriculum) {
+        return ETags.of("curriculum-todos", curriculum.getId(),
+                toDoCurriculumRepository.findVersionStampByCurriculumId(curriculum.getId()));
     }
 
 
     // Aktualisierung des Lehrplans auf id
     public Optional<Curriculum> updateCurriculumForCurrentUser(UpdateCurriculumPayload updatePayload) {
-        // Извлекаем текущего пользователя
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-        User currentUser = userService.findUserByUsername(currentUsername);
-        if (currentUser == null) {
-            return Optional.empty();
-        }
         // Abrufen des Lehrplans für den aktuellen Benutzer
-        Optional<Curriculum> curriculumOpt = curriculumRepository.findByUser_Id(currentUser.getId());
+        Optional<Curriculum> curriculumOpt = curriculumRepository.findByUser_Id(currentUser.id());
         return curriculumOpt.map(existingCurriculum -> {
             existingCurriculum.setTitle(updatePayload.title());
 
             // Überschreiben Sie das Benutzerfeld nicht - setzen Sie den aktuellen Benutzer aus Sicherheitsgründen
-            existingCurriculum.setUser(currentUser);
+            existingCurriculum.setUser(currentUser.reference());
             return curriculumRepository.save(existingCurriculum);
         });
     }
 
     // Löschen eines Lehrplans current user
     public void deleteCurriculumForCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-        User currentUser = userService.findUserByUsername(currentUsername);
         // Предполагается, что в репозитории определён метод для поиска по user.id
-        Optional<Curriculum> curriculumOpt = curriculumRepository.findByUser_Id(currentUser.getId());
+        Optional<Curriculum> curriculumOpt = curriculumRepository.findByUser_Id(currentUser.id());
         if (curriculumOpt.isEmpty()) {
             throw new RuntimeException("Curriculum not found for current user");
         }
@@ -0,0 +1,256 @@
+package de.dreamteam.todolist.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Erzeugt synthetische Daten für Last- und Kapazitätstests (Profil datagen), z. B.
+ * {@code java -jar todolist.jar --spring.profiles.active=datagen --spring.datasource.url=... --app.datagen.todos=10000000}.
+ * Alle Zeilen entstehen per INSERT ... SELECT über generate_series direkt in PostgreSQL, blockweise mit
+ * einer Transaktion pro Block; es werden keine Entities geladen. Zufallswerte kommen aus
+ * hashint8extended(Zeilennummer, Seed), damit liefert derselbe Seed dieselben Daten, unabhängig von der
+ * Blockgröße und von parallelen Abfragen. Neue Zeilen werden hinter die vorhandenen IDs angehängt,
+ * danach werden die Sequenzen nachgezogen. Nur die Datumswerte hängen zusätzlich von anchor-date ab.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+@RequiredArgsConstructor
+public class DatasetGenerator implements ApplicationRunner {
+
+    // Anteile der Status: 50 % DONE, 20 % DOING, Rest TODO
+    private static final double DONE_SHARE = 0.5;
+    private static final double DOING_SHARE = 0.7;
+    // Anteile der Zusammenfassungen: 10 % täglich, 5 % wöchentlich
+    private static final double DAILY_DIGEST_SHARE = 0.1;
+    private static final double WEEKLY_DIGEST_SHARE = 0.15;
+    // Hibernate reserviert IDs in Blöcken dieser Größe (allocationSize der Sequenzen)
+    private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ToDoSearchService toDoSearchService;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Value("${app.datagen.seed}")
+    private long seed;
+
+    @Value("${app.datagen.users}")
+    private int users;
+
+    @Value("${app.datagen.projects}")
+    private int projects;
+
+    @Value("${app.datagen.members-per-project}")
+    private int membersPerProject;
+
+    @Value("${app.datagen.todos}")
+    private long todos;
+
+    // Exponent > 1 verteilt die ToDos ungleich: wenige Benutzer haben sehr viele, die meisten wenige
+    @Value("${app.datagen.todo-skew}")
+    private double todoSkew;
+
+    @Value("${app.datagen.project-share}")
+    private double projectShare;
+
+    @Value("${app.datagen.curriculum-share}")
+    private double curriculumShare;
+
+    @Value("${app.datagen.entries-per-curriculum}")
+    private int entriesPerCurriculum;
+
+    @Value("${app.datagen.chunk-size}")
+    private int chunkSize;
+
+    @Value("${app.datagen.anchor-date:}")
+    private String anchorDate;
+
+    @Value("${app.datagen.password}")
+    private String password;
+
+    @Value("${app.datagen.rebuild-search-index}")
+    private boolean rebuildSearchIndex;
+
+    @Value("${app.datagen.exit}")
+    private boolean exit;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        checkPostgres();
+        if (membersPerProject >= users) {
+            throw new IllegalStateException("app.datagen.members-per-project must be lower than app.datagen.users");
+        }
+
+        long start = System.nanoTime();
+        LocalDate anchor = anchorDate.isBlank() ? LocalDate.now() : LocalDate.parse(anchorDate);
+        long userBase = maxId("users");
+        long projectBase = maxId("projects");
+        long toDoBase = maxId("todo");
+        long curriculumBase = maxId("curriculum");
+        long toDoCurriculumBase = maxId("todo_curriculum");
+        log.info("Generating {} users, {} projects, {} todos with seed {} (anchor date {})",
+                users, projects, todos, seed, anchor);
+
+        insertUsers(userBase);
+        insertProjects(userBase, projectBase);
+        insertToDos(userBase, projectBase, toDoBase, anchor);
+        long curricula = insertCurricula(userBase, curriculumBase, toDoBase, toDoCurriculumBase);
+        resetSequences();
+        jdbcTemplate.execute("analyze users, projects, project_users, todo, todo_user_list, curriculum, todo_curriculum");
+
+        log.info("Dataset generated in {} s: {} users, {} projects, {} todos, {} curricula",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), users, projects, todos, curricula);
+
+        // Der Suchindex wird sonst nur über die Services gepflegt und kennt die neuen ToDos nicht
+        if (rebuildSearchIndex) {
+            log.info("Rebuilt search index with {} todos", toDoSearchService.rebuild());
+        } else {
+            log.info("Search index not rebuilt, use the searchindex endpoint if full-text search is needed");
+        }
+
+        if (exit) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    // Zeilennummern beginnen bei 0, die ID ist jeweils Basis + 1 + Zeilennummer
+    private void insertUsers(long userBase) {
+        // Alle Benutzer erhalten dasselbe Passwort, damit Lasttests sich mit jedem Konto anmelden können
+        String encodedPassword = passwordEncoder.encode(password);
+        forEachChunk("users", users, (from, to) -> jdbcTemplate.update("""
+                insert into users (id, first_name, last_name, username, email, password, enabled, digest_frequency)
+                select ? + 1 + g, 'Vorname ' || g, 'Nachname ' || g,
+                       'load-user-' || (? + 1 + g), 'load-user-' || (? + 1 + g) || '@example.com', ?, true,
+                       case when %1$s < %2$s then 'DAILY' when %1$s < %3$s then 'WEEKLY' else 'NONE' end
+                from generate_series(?, ?) g
+                """.formatted(random("g", 1), DAILY_DIGEST_SHARE, WEEKLY_DIGEST_SHARE),
+                userBase, userBase, userBase, encodedPassword, from, to));
+    }
+
+    private void insertProjects(long userBase, long projectBase) {
+        String owner = userIndex("g", 10);
+        forEachChunk("projects", projects, (from, to) -> {
+            jdbcTemplate.update("""
+                    insert into projects (id, version, title, description, owner_id)
+                    select ? + 1 + g, 0, 'Projekt ' || g, 'Beschreibung des Projekts ' || g, ? + 1 + %s
+                    from generate_series(?, ?) g
+                    """.formatted(owner), projectBase, userBase, from, to);
+            // Aufeinanderfolgende Benutzer ab einem zufälligen Versatz, damit niemand doppelt oder als Besitzer Mitglied ist
+            jdbcTemplate.update("""
+                    insert into project_users (project_id, user_id)
+                    select ? + 1 + g, ? + 1 + (%1$s + 1 + (floor(%2$s * %3$d)::bigint + k) %% %3$d) %% %4$d
+                    from generate_series(?, ?) g cross join generate_series(0, ?) k
+                    """.formatted(owner, random("g", 11), users - 1, users),
+                    projectBase, userBase, from, to, membersPerProject - 1);
+        });
+    }
+
+    private void insertToDos(long userBase, long projectBase, long toDoBase, LocalDate anchor) {
+        String assignee = "floor(%d * power(%s, %s))::bigint".formatted(users, random("g", 20), todoSkew);
+        String startDate = "?::date - floor(365 * %s)::int".formatted(random("g", 21));
+        forEachChunk("todos", todos, (from, to) -> {
+            jdbcTemplate.update("""
+                    insert into todo (id, version, title, creator, description, start_date, end_date, status, project_id)
+                    select ? + 1 + g, 0, 'Aufgabe ' || g, 'load-user-' || (? + 1 + %1$s), 'Beschreibung der Aufgabe ' || g,
+                           %2$s, %2$s + floor(60 * %3$s)::int,
+                           case when %4$s < %5$s then 'DONE' when %4$s < %6$s then 'DOING' else 'TODO' end,
+                           case when %7$s < ? then ? + 1 + floor(%8$d * %9$s)::bigint end
+                    from generate_series(?, ?) g
+                    """.formatted(assignee, startDate, random("g", 22), random("g", 23), DONE_SHARE, DOING_SHARE,
+                            random("g", 24), projects, random("g", 25)),
+                    toDoBase, userBase, Date.valueOf(anchor), Date.valueOf(anchor),
+                    projects > 0 ? projectShare : 0.0, projectBase, from, to);
+            jdbcTemplate.update("""
+                    insert into todo_user_list (to_do_id, user_list_id)
+                    select ? + 1 + g, ? + 1 + %s
+                    from generate_series(?, ?) g
+                    """.formatted(assignee), toDoBase, userBase, from, to);
+        });
+    }
+
+    private long insertCurricula(long userBase, long curriculumBase, long toDoBase, long toDoCurriculumBase) {
+        int curricula = jdbcTemplate.update("""
+                insert into curriculum (id, version, title, user_id)
+                select ? + row_number() over (order by g), 0, 'Lehrplan ' || g, ? + 1 + g
+                from generate_series(0, ?) g
+                where %s < ?
+                """.formatted(random("g", 30)), curriculumBase, userBase, users - 1, curriculumShare);
+        // Die ersten ToDos des Benutzers; die ID ergibt sich aus Lehrplan und Position und bleibt so je Block eindeutig
+        forEachChunk("curriculum entries", curricula, (from, to) -> jdbcTemplate.update("""
+                insert into todo_curriculum (id, version, start_date, end_date, todo_id, curriculum_id)
+                select ? + (e.curriculum_id - ? - 1) * ? + e.rn, 0, e.start_date, e.end_date, e.todo_id, e.curriculum_id
+                from (select c.id as curriculum_id, t.id as todo_id, t.start_date, t.end_date,
+                             row_number() over (partition by c.id order by t.id) as rn
+                      from curriculum c
+                          join todo_user_list tul on tul.user_list_id = c.user_id
+                          join todo t on t.id = tul.to_do_id
+                      where c.id between ? and ? and t.id > ?) e
+                where e.rn <= ?
+                """, toDoCurriculumBase, curriculumBase, entriesPerCurriculum,
+                curriculumBase + 1 + from, curriculumBase + 1 + to, toDoBase, entriesPerCurriculum));
+        return curricula;
+    }
+
+    // Identity-Spalten auf die höchste ID, Sequenzen mit Blockvergabe einen Block darüber
+    private void resetSequences() {
+        for (String table : new String[]{"users", "projects", "curriculum"}) {
+            jdbcTemplate.execute("select setval(pg_get_serial_sequence('%1$s', 'id'), (select max(id) from %1$s))"
+                    .formatted(table));
+        }
+        jdbcTemplate.execute("select setval('todo_seq', (select max(id) from todo) + %d)"
+                .formatted(SEQUENCE_ALLOCATION_SIZE));
+        jdbcTemplate.execute("select setval('todo_curriculum_seq', coalesce((select max(id) from todo_curriculum), 0) + %d)"
+                .formatted(SEQUENCE_ALLOCATION_SIZE));
+    }
+
+    private void forEachChunk(String label, long rows, ChunkInsert insert) {
+        for (long from = 0; from < rows; from += chunkSize) {
+            long to = Math.min(from + chunkSize, rows) - 1;
+            insert.run(from, to);
+            log.info("Generated {} of {} {}", to + 1, rows, label);
+        }
+    }
+
+    // Gleichverteilt in [0, 1), abhängig nur von Zeilennummer, Seed und Spalte
+    private String random(String row, int column) {
+        return "((hashint8extended(%s, %d) & 2147483647) / 2147483648.0)".formatted(row, seed + column);
+    }
+
+    private String userIndex(String row, int column) {
+        return "floor(%d * %s)::bigint".formatted(users, random(row, column));
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private void checkPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            throw new IllegalStateException("The dataset generator requires PostgreSQL, found " + product);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkInsert {
+        void run(long from, long to);
+    }
+}
@@ -0,0 +1,130 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.model.DigestFrequency;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.ToDoCurriculumRepository;
+import de.dreamteam.todolist.repository.ToDoRepository;
+import de.dreamteam.todolist.repository.ToDoRepository.DigestItem;
+import de.dreamteam.todolist.repository.UserRepository;
+import de.dreamteam.todolist.repository.UserRepository.DigestRecipient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Zusammenfassung offener und bald fälliger Aufgaben per E-Mail.
+ * Die Empfänger werden blockweise per Keyset-Paginierung gelesen; pro Block holen zwei Abfragen
+ * die ToDos und Lehrplan-Einträge aller Benutzer des Blocks, die Mails gehen gesammelt in den Outbox.
+ * Der Speicherbedarf hängt damit nur von chunk-size ab, nicht von der Zahl der Benutzer.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DigestService {
+
+    private final UserRepository userRepository;
+    private final ToDoRepository toDoRepository;
+    private final ToDoCurriculumRepository toDoCurriculumRepository;
+    private final EmailService emailService;
+    private final MessageSource messageSource;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.digest.enabled}")
+    private boolean enabled;
+
+    @Value("${app.digest.chunk-size}")
+    private int chunkSize;
+
+    @Value("${app.digest.max-items}")
+    private int maxItems;
+
+    // Benutzer haben noch keine eigene Sprache, daher eine gemeinsame für alle
+    @Value("${app.digest.locale}")
+    private Locale locale;
+
+    @Value("${app.digest.zone}")
+    private ZoneId zone;
+
+    @Scheduled(cron = "${app.digest.daily-cron}", zone = "${app.digest.zone}")
+    void sendDailyDigests() {
+        if (enabled) {
+            sendDigests(DigestFrequency.DAILY);
+        }
+    }
+
+    @Scheduled(cron = "${app.digest.weekly-cron}", zone = "${app.digest.zone}")
+    void sendWeeklyDigests() {
+        if (enabled) {
+            sendDigests(DigestFrequency.WEEKLY);
+        }
+    }
+
+    public int sendDigests(DigestFrequency frequency) {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now(zone);
+        LocalDate dueBefore = today.plusDays(frequency == DigestFrequency.WEEKLY ? 7 : 1);
+        Map<Locale, DigestTemplate> templates = new HashMap<>();
+
+        int users = 0;
+        int sent = 0;
+        Long afterId = 0L;
+        List<DigestRecipient> recipients;
+        do {
+            recipients = userRepository.findDigestRecipients(frequency, afterId, Limit.of(chunkSize));
+            if (recipients.isEmpty()) {
+                break;
+            }
+            afterId = recipients.getLast().getId();
+            users += recipients.size();
+            DigestTemplate template = templates.computeIfAbsent(locale,
+                    l -> DigestTemplate.load(messageSource, l, frequency, maxItems));
+            List<DigestRecipient> chunk = recipients;
+            sent += transactionTemplate.execute(_ -> sendChunk(chunk, template, today, dueBefore));
+        } while (recipients.size() == chunkSize);
+
+        log.info("{} digest: {} emails for {} users in {} ms", frequency, sent, users,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return sent;
+    }
+
+    private int sendChunk(List<DigestRecipient> recipients, DigestTemplate template, LocalDate today,
+                          LocalDate dueBefore) {
+        List<Long> userIds = recipients.stream().map(DigestRecipient::getId).toList();
+        Map<Long, List<DigestItem>> toDos = groupByUser(
+                toDoRepository.findDigestItems(userIds, ToDoStatus.DONE, dueBefore));
+        Map<Long, List<DigestItem>> curriculumItems = groupByUser(
+                toDoCurriculumRepository.findDigestItems(userIds, ToDoStatus.DONE, dueBefore));
+
+        List<EmailService.OutgoingEmail> emails = new ArrayList<>();
+        for (DigestRecipient recipient : recipients) {
+            List<DigestItem> userToDos = toDos.getOrDefault(recipient.getId(), List.of());
+            List<DigestItem> userCurriculumItems = curriculumItems.getOrDefault(recipient.getId(), List.of());
+            if (userToDos.isEmpty() && userCurriculumItems.isEmpty()) {
+                continue;
+            }
+            emails.add(new EmailService.OutgoingEmail(recipient.getEmail(), template.subject(),
+                    template.render(recipient.getFirstName(), userToDos, userCurriculumItems, today)));
+        }
+        emailService.sendEmails(emails);
+        return emails.size();
+    }
+
+    private static Map<Long, List<DigestItem>> groupByUser(List<DigestItem> items) {
+        return items.stream().collect(Collectors.groupingBy(DigestItem::getUserId));
+    }
+}
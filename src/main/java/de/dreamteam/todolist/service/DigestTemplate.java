@@ -0,0 +1,92 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.model.DigestFrequency;
+import de.dreamteam.todolist.repository.ToDoRepository.DigestItem;
+import org.springframework.context.MessageSource;
+import org.springframework.web.util.HtmlUtils;
+
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Texte der Zusammenfassung für eine Sprache, einmal pro Lauf aus messages.properties geladen.
+ * Pro Benutzer werden nur noch Name und Aufgaben eingesetzt. Nicht thread-sicher (MessageFormat).
+ */
+final class DigestTemplate {
+
+    private final String subject;
+    private final MessageFormat greeting;
+    private final String overdueHeading;
+    private final String dueHeading;
+    private final String curriculumHeading;
+    private final MessageFormat item;
+    private final MessageFormat more;
+    private final String footer;
+    private final DateTimeFormatter dateFormatter;
+    private final int maxItems;
+
+    private DigestTemplate(MessageSource messageSource, Locale locale, DigestFrequency frequency, int maxItems) {
+        this.subject = messageSource.getMessage("digest.subject." + frequency.name().toLowerCase(Locale.ROOT),
+                null, locale);
+        this.greeting = new MessageFormat(messageSource.getMessage("digest.greeting", null, locale), locale);
+        this.overdueHeading = messageSource.getMessage("digest.section.overdue", null, locale);
+        this.dueHeading = messageSource.getMessage("digest.section.due", null, locale);
+        this.curriculumHeading = messageSource.getMessage("digest.section.curriculum", null, locale);
+        this.item = new MessageFormat(messageSource.getMessage("digest.item", null, locale), locale);
+        this.more = new MessageFormat(messageSource.getMessage("digest.more", null, locale), locale);
+        this.footer = messageSource.getMessage("digest.footer", null, locale);
+        this.dateFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(locale);
+        this.maxItems = maxItems;
+    }
+
+    static DigestTemplate load(MessageSource messageSource, Locale locale, DigestFrequency frequency, int maxItems) {
+        return new DigestTemplate(messageSource, locale, frequency, maxItems);
+    }
+
+    String subject() {
+        return subject;
+    }
+
+    // toDos und curriculumItems sind nach Fälligkeit sortiert
+    String render(String firstName, List<DigestItem> toDos, List<DigestItem> curriculumItems, LocalDate today) {
+        StringBuilder html = new StringBuilder(512);
+        html.append("<p>").append(greeting.format(new Object[]{escape(firstName)})).append("</p>");
+        int firstDue = 0;
+        while (firstDue < toDos.size() && toDos.get(firstDue).getEndDate().isBefore(today)) {
+            firstDue++;
+        }
+        appendSection(html, overdueHeading, toDos.subList(0, firstDue));
+        appendSection(html, dueHeading, toDos.subList(firstDue, toDos.size()));
+        appendSection(html, curriculumHeading, curriculumItems);
+        html.append("<p>").append(footer).append("</p>");
+        return html.toString();
+    }
+
+    private void appendSection(StringBuilder html, String heading, List<DigestItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        html.append("<h3>").append(heading).append("</h3><ul>");
+        int shown = Math.min(items.size(), maxItems);
+        for (int i = 0; i < shown; i++) {
+            DigestItem digestItem = items.get(i);
+            html.append("<li>")
+                    .append(item.format(new Object[]{escape(digestItem.getTitle()),
+                            dateFormatter.format(digestItem.getEndDate())}))
+                    .append("</li>");
+        }
+        if (items.size() > shown) {
+            html.append("<li>").append(more.format(new Object[]{items.size() - shown})).append("</li>");
+        }
+        html.append("</ul>");
+    }
+
+    // Vorname und Titel sind optional; htmlEscape lehnt null ab, das würde den ganzen Block abbrechen
+    private static String escape(String value) {
+        return value != null ? HtmlUtils.htmlEscape(value) : "";
+    }
+}
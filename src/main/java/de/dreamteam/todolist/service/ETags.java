@@ -0,0 +1,33 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.repository.VersionStamp;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Bildet undurchsichtige Entity-Tags aus den Teilen, die eine Antwort bestimmen, z.B. der
+ * Benutzer-ID und den Versionsstempeln. Gleiche Teile ergeben immer denselben Tag, daher lässt er
+ * sich mit If-None-Match vergleichen, bevor der Body der Antwort aufgebaut wird.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(String resource, Object... parts) {
+        String source = resource + Arrays.stream(parts)
+                .map(ETags::format)
+                .collect(Collectors.joining(":", ":", ""));
+        return DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String format(Object part) {
+        if (part instanceof VersionStamp stamp) {
+            return stamp.count() + "/" + stamp.idSum() + "/" + stamp.versionSum();
+        }
+        return String.valueOf(part);
+    }
+}
@@ -0,0 +1,20 @@
+package de.dreamteam.todolist.service;
+
+import lombok.Getter;
+
+// permanent = true: erneutes Senden ist sinnlos (z.B. ungültige Adresse), die Mail geht direkt auf DEAD
+@Getter
+public class EmailDeliveryException extends Exception {
+
+    private final boolean permanent;
+
+    public EmailDeliveryException(String message, boolean permanent) {
+        super(message);
+        this.permanent = permanent;
+    }
+
+    public EmailDeliveryException(String message, Throwable cause) {
+        super(message, cause);
+        this.permanent = false;
+    }
+}
@@ -0,0 +1,188 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.entity.EmailOutbox;
+import de.dreamteam.todolist.model.EmailStatus;
+import de.dreamteam.todolist.repository.EmailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verschickt E-Mails aus dem Outbox im Hintergrund. Pro Durchlauf wird ein Block fälliger Mails
+ * mit SKIP LOCKED gesperrt und per Lease reserviert, danach verschickt ein fester Thread-Pool die
+ * Mails parallel über den {@link EmailTransport}. Fehlgeschlagene Mails werden mit exponentiellem
+ * Backoff erneut versucht und nach max-attempts auf DEAD gesetzt. Das Abholen läuft auf einem eigenen
+ * Thread statt über @Scheduled: bei Rückstau holt ein Durchlauf Block um Block ab und würde sonst den
+ * gemeinsamen Scheduler-Thread der übrigen Jobs (Suchindex, Widerrufe, Zusammenfassungen) blockieren.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailTransport emailTransport;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.email.dispatcher.enabled}")
+    private boolean enabled;
+
+    @Value("${app.email.dispatcher.threads}")
+    private int threads;
+
+    @Value("${app.email.dispatcher.batch-size}")
+    private int batchSize;
+
+    @Value("${app.email.dispatcher.poll-interval-ms}")
+    private long pollIntervalMs;
+
+    @Value("${app.email.dispatcher.lease}")
+    private Duration lease;
+
+    @Value("${app.email.dispatcher.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${app.email.dispatcher.initial-backoff}")
+    private Duration initialBackoff;
+
+    @Value("${app.email.dispatcher.max-backoff}")
+    private Duration maxBackoff;
+
+    @Value("${app.email.dispatcher.sent-retention}")
+    private Duration sentRetention;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService poller;
+
+    @PostConstruct
+    void startWorkers() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Die Warteschlange fasst genau einen Block, mehr wird pro Durchlauf nicht abgeholt
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "email-dispatch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopWorkers() throws InterruptedException {
+        if (poller != null) {
+            poller.shutdown();
+            poller.awaitTermination(lease.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(lease.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Eine Exception würde scheduleWithFixedDelay beenden, daher wird sie hier nur protokolliert
+    private void poll() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            log.error("Email dispatch failed", e);
+        }
+    }
+
+    void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        List<EmailOutbox> batch;
+        do {
+            batch = claimBatch();
+            CompletableFuture.allOf(batch.stream()
+                    .map(email -> CompletableFuture.runAsync(() -> deliver(email), executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "PT1H")
+    void purgeSent() {
+        if (!enabled) {
+            return;
+        }
+        int deleted = emailOutboxRepository.deleteSentBefore(EmailStatus.SENT, Instant.now().minus(sentRetention));
+        if (deleted > 0) {
+            log.info("Purged {} sent emails from the outbox", deleted);
+        }
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        return transactionTemplate.execute(_ -> {
+            Instant now = Instant.now();
+            List<Long> ids = emailOutboxRepository.lockDueIds(now, batchSize);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            emailOutboxRepository.lease(ids, now.plus(lease));
+            return emailOutboxRepository.findAllById(ids);
+        });
+    }
+
+    private void deliver(EmailOutbox email) {
+        try {
+            emailTransport.send(email.getRecipient(), email.getSubject(), email.getBody());
+            emailOutboxRepository.markSent(email.getId(), EmailStatus.SENT, Instant.now());
+        } catch (EmailDeliveryException e) {
+            recordFailure(email, e.getMessage(), e.isPermanent());
+        } catch (RuntimeException e) {
+            recordFailure(email, e.toString(), false);
+        }
+    }
+
+    private void recordFailure(EmailOutbox email, String error, boolean permanent) {
+        int attempts = email.getAttempts() + 1;
+        boolean dead = permanent || attempts >= maxAttempts;
+        Instant nextAttemptAt = Instant.now().plus(backoff(attempts));
+        if (error != null && error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        emailOutboxRepository.markFailed(email.getId(), dead ? EmailStatus.DEAD : EmailStatus.PENDING,
+                attempts, nextAttemptAt, error);
+        if (dead) {
+            log.error("Email {} to {} moved to DEAD after {} attempts: {}", email.getId(), email.getRecipient(),
+                    attempts, error);
+        } else {
+            log.warn("Email {} failed (attempt {}), retrying at {}: {}", email.getId(), attempts, nextAttemptAt,
+                    error);
+        }
+    }
+
+    // initial-backoff * 2^(attempts-1), begrenzt auf max-backoff
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
@@ -1,27 +1,30 @@
 package de.dreamteam.todolist.service;
 
-import com.sendgrid.Method;
-import com.sendgrid.Request;
-import com.sendgrid.Response;
-import com.sendgrid.SendGrid;
-import com.sendgrid.helpers.mail.Mail;
-import com.sendgrid.helpers.mail.objects.Content;
-import com.sendgrid.helpers.mail.objects.Email;
-import lombok.extern.slf4j.Slf4j;
+import de.dreamteam.todolist.entity.EmailOutbox;
+import de.dreamteam.todolist.model.EmailStatus;
+import de.dreamteam.todolist.repository.EmailOutboxRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
 
+/**
+ * Legt E-Mails im Outbox ab, in der Transaktion des Aufrufers. Verschickt werden sie vom
+ * {@link EmailDispatcher}, damit Registrierung und Passwort-Reset nicht auf SendGrid warten.
+ */
 @Service
-@Slf4j
+@RequiredArgsConstructor
+@Timed("todolist.service")
 public class EmailService {
 
-    @Value("${sendgrid.api.key}")
-    private String sendGridApiKey;
+    private final EmailOutboxRepository emailOutboxRepository;
 
-    @Value("${sendgrid.from.email}")
-    private String sendGridFromEmail;
+    public record OutgoingEmail(String to, String subject, String htmlContent) {
+    }
 
     @Value("${app.url.frontend}")
     private String frontendUrl;
@@ -44,24 +47,27 @@ public class EmailService {
         sendEmail(to, subject, content);
     }
 
-    private void sendEmail(String to, String subject, String htmlContent) {
-        try {
-            Email from = new Email(sendGridFromEmail);
-            Email toEmail = new Email(to);
-            Content content = new Content("text/html", htmlContent);
-            Mail mail = new Mail(from, subject, toEmail, content);
+    @Transactional
+    public void sendEmail(String to, String subject, String htmlContent) {
+        emailOutboxRepository.save(pending(new OutgoingEmail(to, subject, htmlContent), Instant.now()));
+    }
 
-            SendGrid sg = new SendGrid(sendGridApiKey);
-            Request request = new Request();
-            request.setMethod(Method.POST);
-            request.setEndpoint("mail/send");
-            request.setBody(mail.build());
+    // Mehrere Mails auf einmal, per JDBC-Batch eingefügt
+    @Transactional
+    public void sendEmails(List<OutgoingEmail> emails) {
+        Instant now = Instant.now();
+        emailOutboxRepository.saveAll(emails.stream().map(email -> pending(email, now)).toList());
+    }
 
-            Response response = sg.api(request);
-            log.info("Email sent with status code: {}", response.getStatusCode());
-        } catch (IOException e) {
-            log.error("Error sending email", e);
-            throw new RuntimeException("Failed to send email", e);
-        }
+    private static EmailOutbox pending(OutgoingEmail email, Instant now) {
+        return EmailOutbox.builder()
+                .recipient(email.to())
+                .subject(email.subject())
+                .body(email.htmlContent())
+                .status(EmailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package de.dreamteam.todolist.service;
+
+/**
+ * Versandweg für E-Mails aus dem Outbox. Ausgewählt über {@code app.email.transport}:
+ * {@code sendgrid} für den Betrieb, {@code log} für Tests und Lasttests ohne externen Dienst.
+ */
+public interface EmailTransport {
+
+    void send(String to, String subject, String htmlContent) throws EmailDeliveryException;
+}
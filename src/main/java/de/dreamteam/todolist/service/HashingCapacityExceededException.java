@@ -0,0 +1,13 @@
+package de.dreamteam.todolist.service;
+
+// Alle Hash-Threads sind belegt und die Warteschlange ist voll; wird als 503 beantwortet
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+
+    public HashingCapacityExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,17 @@
+package de.dreamteam.todolist.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Ersatz für SendGrid in Tests und Lasttests: verschickt nichts, schreibt nur ins Log
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.email.transport", havingValue = "log")
+public class LogEmailTransport implements EmailTransport {
+
+    @Override
+    public void send(String to, String subject, String htmlContent) {
+        log.info("Email to {} with subject '{}' not sent (log transport)", to, subject);
+    }
+}
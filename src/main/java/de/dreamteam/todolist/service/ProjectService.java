@@ -1,32 +1,45 @@
 package de.dreamteam.todolist.service;
 
+import de.dreamteam.todolist.controller.payload.CursorPagePayload;
 import de.dreamteam.todolist.controller.payload.NewProjectPayload;
 import de.dreamteam.todolist.controller.payload.UpdateProjectPayload;
 import de.dreamteam.todolist.entity.Project;
 import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.ToDoStatus;
 import de.dreamteam.todolist.repository.ProjectRepository;
+import de.dreamteam.todolist.repository.ToDoRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.nio.file.AccessDeniedException;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed("todolist.service")
 public class ProjectService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final ProjectRepository projectRepository;
+    private final ToDoRepository toDoRepository;
     private final UserService userService;
+    private final CurrentUser currentUser;
 
     // Ein neues Projekt erstellen
     /** Создать проект и сразу добавить в него текущего юзера */
     public Project createProject(NewProjectPayload newPayload) {
-        // достаём текущего залогиненного
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User current = userService.findUserByUsername(username);
+        // достаём текущего залогиненного (без запроса к БД)
+        User current = currentUser.reference();
 
         Project project = Project.builder()
                 .title(newPayload.title())
@@ -41,14 +54,63 @@ public class ProjectService {
 
     /** Возвращает только проекты, в которых участвует текущий пользователь */
     public List<Project> getAllProjectsForCurrentUser() {
-        String username = SecurityContextHolder
-                .getContext().getAuthentication().getName();
-        User current = userService.findUserByUsername(username);
+        User current = currentUser.reference();
         // вернёт все проекты, где user и/или owner == current
         return projectRepository.findDistinctByOwnerOrUsersContains(current, current);
     }
 
 
+    // ETag für die Projektliste: Projekte des Benutzers und deren Aufgaben, ohne sie zu laden
+    public String getAllProjectsETag(boolean summary, Locale locale) {
+        Long userId = currentUser.id();
+        return ETags.of("projects", userId, summary, locale.toLanguageTag(),
+                projectRepository.findVersionStampByUserId(userId),
+                toDoRepository.findVersionStampByProjectMemberId(userId));
+    }
+
+    public String getProjectETag(Project project, Locale locale) {
+        return ETags.of("project", project.getId(), project.getVersion(), locale.toLanguageTag(),
+                toDoRepository.findVersionStampByProjectId(project.getId()));
+    }
+
+    // Aufgaben aller übergebenen Projekte in einer Abfrage, gruppiert nach Projekt-ID
+    public Map<Long, List<ToDoRepository.ProjectTaskView>> getTasksByProject(List<Project> projects) {
+        if (projects.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> projectIds = projects.stream().map(Project::getId).toList();
+        return toDoRepository.findTasksByProjectIds(projectIds).stream()
+                .collect(Collectors.groupingBy(ToDoRepository.ProjectTaskView::getProjectId));
+    }
+
+    // Anzahl der Aufgaben je Status für jedes Projekt, statt die Aufgaben selbst zu laden
+    public Map<Long, Map<ToDoStatus, Long>> countTasksByStatus(List<Project> projects) {
+        if (projects.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> projectIds = projects.stream().map(Project::getId).toList();
+        Map<Long, Map<ToDoStatus, Long>> counts = new HashMap<>();
+        for (ToDoRepository.ProjectStatusCount row : toDoRepository.countByProjectIdsAndStatus(projectIds)) {
+            counts.computeIfAbsent(row.getProjectId(), _ -> new EnumMap<>(ToDoStatus.class))
+                    .put(row.getStatus(), row.getCount());
+        }
+        return counts;
+    }
+
+    // Keyset-paginierte Aufgaben eines Projekts, nur für Besitzer und Mitglieder
+    public CursorPagePayload<ToDoRepository.ProjectTaskView> getTaskPageForCurrentUser(Long projectId, String cursor, int size)
+            throws AccessDeniedException {
+        getProjectByIdForCurrentUser(projectId);
+
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<ToDoRepository.ProjectTaskView> tasks = toDoRepository.findTaskPageByProjectId(
+                projectId, KeysetCursor.decode(cursor), Limit.of(pageSize + 1));
+        boolean hasMore = tasks.size() > pageSize;
+        List<ToDoRepository.ProjectTaskView> page = hasMore ? tasks.subList(0, pageSize) : tasks;
+
+        return new CursorPagePayload<>(page, hasMore ? KeysetCursor.encode(page.getLast().getId()) : null);
+    }
+
     // Projekt nach ID abrufen
     public Optional<Project> getProjectById(Long id) {
         return projectRepository.findById(id);
@@ -58,11 +120,11 @@ public class ProjectService {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Project not found"));
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User current = userService.findUserByUsername(username);
+        Long currentId = currentUser.id();
 
-        boolean isOwner = project.getOwner().getId().equals(current.getId());
-        boolean isMember = project.getUsers().contains(current);
+        // Vergleich über die ID, da der Benutzer aus dem Cache nicht aus dieser Session stammt
+        boolean isOwner = project.getOwner().getId().equals(currentId);
+        boolean isMember = project.getUsers().stream().anyMatch(user -> user.getId().equals(currentId));
 
         if (!isOwner && !isMember) {
             throw new AccessDeniedException("Access denied");
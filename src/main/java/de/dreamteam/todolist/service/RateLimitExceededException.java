@@ -0,0 +1,17 @@
+package de.dreamteam.todolist.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// Grenzwert einer RateLimitPolicy überschritten; wird als 429 mit Retry-After beantwortet
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
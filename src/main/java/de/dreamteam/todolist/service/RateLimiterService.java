@@ -0,0 +1,91 @@
+package de.dreamteam.todolist.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.dreamteam.todolist.model.RateLimitPolicy;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Begrenzt Anfragen an die Auth-Endpunkte im Speicher, bevor Datenbank oder BCrypt beteiligt sind.
+ * Je Schlüssel (Policy + IP bzw. Konto) gibt es einen {@link TokenBucket}; die Buckets liegen in
+ * einem größenbeschränkten Caffeine-Cache. Ein Bucket, der länger als eine volle Nachfüllperiode
+ * unbenutzt war, ist wieder voll und kann daher ohne Verlust verdrängt werden.
+ * Die Zähler gelten je Knoten. Die IP ist {@code request.getRemoteAddr()}; hinter einem Reverse-Proxy
+ * stimmt sie nur mit server.forward-headers-strategy, sonst teilen sich alle Clients den Bucket des Proxys.
+ */
+@Service
+@RequiredArgsConstructor
+public class RateLimiterService {
+
+    private static final int MAX_KEY_VALUE_LENGTH = 254;
+
+    private record Limits(int capacity, int ipCapacity, Duration period) {
+    }
+
+    private final Environment environment;
+
+    @Value("${app.rate-limit.enabled}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.max-keys}")
+    private long maxKeys;
+
+    private final Map<RateLimitPolicy, Limits> limits = new EnumMap<>(RateLimitPolicy.class);
+    private Cache<String, TokenBucket> buckets;
+
+    @PostConstruct
+    void loadPolicies() {
+        Duration longestPeriod = Duration.ZERO;
+        for (RateLimitPolicy policy : RateLimitPolicy.values()) {
+            String prefix = "app.rate-limit." + policy.key() + ".";
+            Duration period = environment.getRequiredProperty(prefix + "period", Duration.class);
+            int ipCapacity = environment.getRequiredProperty(prefix + "ip-capacity", Integer.class);
+            int capacity = policy.hasAccountKey()
+                    ? environment.getRequiredProperty(prefix + "capacity", Integer.class)
+                    : 0;
+            limits.put(policy, new Limits(capacity, ipCapacity, period));
+            if (period.compareTo(longestPeriod) > 0) {
+                longestPeriod = period;
+            }
+        }
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(longestPeriod)
+                .build();
+    }
+
+    // Wirft RateLimitExceededException, wenn IP oder Konto (falls von der Policy verwendet) kein Token mehr haben
+    public void check(RateLimitPolicy policy, String clientIp, String account) {
+        if (!enabled) {
+            return;
+        }
+        Limits policyLimits = limits.get(policy);
+        long now = System.nanoTime();
+        long waitNanos = tryConsume(policy, "ip", clientIp, policyLimits.ipCapacity(), policyLimits.period(), now);
+        if (waitNanos == 0 && policy.hasAccountKey() && account != null && !account.isBlank()) {
+            waitNanos = tryConsume(policy, "account", account.trim().toLowerCase(Locale.ROOT),
+                    policyLimits.capacity(), policyLimits.period(), now);
+        }
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException("Rate limit exceeded for " + policy.key(), Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private long tryConsume(RateLimitPolicy policy, String dimension, String value, int capacity, Duration period,
+                            long now) {
+        if (value.length() > MAX_KEY_VALUE_LENGTH) {
+            value = value.substring(0, MAX_KEY_VALUE_LENGTH);
+        }
+        String key = policy.name() + '|' + dimension + '|' + value;
+        return buckets.get(key, _ -> new TokenBucket(capacity, period, now)).tryConsume(now);
+    }
+}
@@ -0,0 +1,69 @@
+package de.dreamteam.todolist.service;
+
+import com.sendgrid.Method;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import com.sendgrid.helpers.mail.Mail;
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+// Ein SendGrid-Client für alle Mails, damit die HTTP-Verbindungen wiederverwendet werden
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.email.transport", havingValue = "sendgrid", matchIfMissing = true)
+public class SendGridEmailTransport implements EmailTransport {
+
+    private static final int UNAUTHORIZED = 401;
+    private static final int FORBIDDEN = 403;
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final SendGrid sendGrid;
+    private final Email from;
+
+    public SendGridEmailTransport(@Value("${sendgrid.api.key}") String apiKey,
+                                  @Value("${sendgrid.from.email}") String fromEmail) {
+        this.sendGrid = new SendGrid(apiKey);
+        this.from = new Email(fromEmail);
+    }
+
+    @Override
+    public void send(String to, String subject, String htmlContent) throws EmailDeliveryException {
+        try {
+            Mail mail = new Mail(from, subject, new Email(to), new Content("text/html", htmlContent));
+
+            Request request = new Request();
+            request.setMethod(Method.POST);
+            request.setEndpoint("mail/send");
+            request.setBody(mail.build());
+
+            Response response = sendGrid.api(request);
+            int status = response.getStatusCode();
+            if (status >= 400) {
+                if (status == UNAUTHORIZED || status == FORBIDDEN) {
+                    log.error("SendGrid rejected the API key or sender with {}, check sendgrid.api.key and "
+                            + "sendgrid.from.email", status);
+                }
+                throw new EmailDeliveryException("SendGrid responded with " + status + ": " + response.getBody(),
+                        isPermanent(status));
+            }
+            log.debug("Email sent with status code: {}", status);
+        } catch (IOException e) {
+            throw new EmailDeliveryException("Failed to send email", e);
+        }
+    }
+
+    // 4xx liegt meist an der Mail selbst, ein neuer Versuch ändert daran nichts. Ausnahmen: 429 und
+    // 401/403 betreffen Kontingent bzw. Konfiguration (API-Key, Absender) und damit alle Mails gleichermaßen;
+    // die Mails bleiben im Backoff, bis der Fehler behoben ist, statt sofort auf DEAD zu gehen
+    static boolean isPermanent(int status) {
+        return status >= 400 && status < 500
+                && status != TOO_MANY_REQUESTS && status != UNAUTHORIZED && status != FORBIDDEN;
+    }
+}
@@ -6,6 +6,7 @@ import de.dreamteam.todolist.entity.ToDoCurriculum;
 import de.dreamteam.todolist.repository.CurriculumRepository;
 import de.dreamteam.todolist.repository.ToDoCurriculumRepository;
 import de.dreamteam.todolist.repository.ToDoRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +15,7 @@ import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Timed("todolist.service")
 public class ToDoCurriculumService {
 
     private final ToDoCurriculumRepository toDoCurriculumRepository;
@@ -0,0 +1,233 @@
+package de.dreamteam.todolist.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.dreamteam.todolist.controller.payload.ToDoImportResultPayload;
+import de.dreamteam.todolist.controller.payload.ToDoImportRowPayload;
+import de.dreamteam.todolist.entity.Curriculum;
+import de.dreamteam.todolist.entity.Project;
+import de.dreamteam.todolist.entity.ToDo;
+import de.dreamteam.todolist.entity.ToDoCurriculum;
+import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.ImportFormat;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.CurriculumRepository;
+import de.dreamteam.todolist.repository.ProjectRepository;
+import de.dreamteam.todolist.repository.ToDoCurriculumRepository;
+import de.dreamteam.todolist.repository.ToDoRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importiert ToDos aus einer CSV- oder JSON-Datei (JSON-Array oder NDJSON).
+ * Die Datei wird zeilenweise gelesen und in Blöcken fester Größe gespeichert, jeder Block in
+ * einer eigenen Transaktion. Ein fehlerhafter Block macht bereits gespeicherte Blöcke nicht rückgängig.
+ * Zeilen, die nicht zum Schema passen (z.B. ungültiges Datum oder unbekannter Status), werden einzeln
+ * abgelehnt; nur bei unlesbarer Syntax endet der Import an dieser Stelle.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ToDoImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema()
+            .withHeader()
+            .withArrayElementSeparator(";");
+
+    private final ToDoRepository toDoRepository;
+    private final ToDoCurriculumRepository toDoCurriculumRepository;
+    private final ProjectRepository projectRepository;
+    private final CurriculumRepository curriculumRepository;
+    private final ToDoSearchService toDoSearchService;
+    private final CurrentUser currentUser;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.import.chunk-size}")
+    private int chunkSize;
+
+    // Darf nicht innerhalb einer bestehenden Transaktion aufgerufen werden, sonst gilt die Blockgrenze nicht
+    public ToDoImportResultPayload importToDos(InputStream in, ImportFormat format) throws IOException {
+        User user = currentUser.user();
+
+        ImportProgress progress = new ImportProgress();
+        List<NumberedRow> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<ToDoImportRowPayload> rows = reader(format).readValues(in)) {
+            while (rows.hasNextValue()) {
+                long rowNumber = progress.rowsRead + 1;
+                ToDoImportRowPayload row;
+                try {
+                    row = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    // Der Iterator setzt beim nächsten hasNextValue() hinter dieser Zeile wieder auf
+                    progress.rowsRead = rowNumber;
+                    progress.failed++;
+                    progress.error("Row " + rowNumber + ": " + e.getOriginalMessage());
+                    continue;
+                }
+                progress.rowsRead = rowNumber;
+                chunk.add(new NumberedRow(rowNumber, row));
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, user, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            // Die Datei ist ab hier nicht mehr lesbar; bereits gespeicherte Blöcke bleiben erhalten
+            progress.error("Row " + (progress.rowsRead + 1) + ": " + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, user, progress);
+        }
+
+        log.info("Import for user {} finished: {} rows read, {} imported, {} failed",
+                user.getId(), progress.rowsRead, progress.imported, progress.failed);
+        return new ToDoImportResultPayload(progress.rowsRead, progress.imported, progress.failed, progress.errors);
+    }
+
+    private ObjectReader reader(ImportFormat format) {
+        return switch (format) {
+            case CSV -> CSV_MAPPER.readerFor(ToDoImportRowPayload.class).with(CSV_SCHEMA);
+            case JSON -> objectMapper.readerFor(ToDoImportRowPayload.class);
+        };
+    }
+
+    private void importChunk(List<NumberedRow> chunk, User user, ImportProgress progress) {
+        long firstRow = chunk.getFirst().number();
+        long failedBefore = progress.failed;
+        try {
+            List<ToDo> saved = transactionTemplate.execute(_ -> saveChunk(chunk, user, progress));
+            if (saved != null) {
+                progress.imported += saved.size();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Import chunk starting at row {} failed", firstRow, e);
+            progress.failed = failedBefore + chunk.size();
+            progress.error("Rows " + firstRow + "-" + chunk.getLast().number() + ": " + e.getMessage());
+        }
+        log.info("Import for user {}: {} rows read, {} imported, {} failed",
+                user.getId(), progress.rowsRead, progress.imported, progress.failed);
+    }
+
+    private List<ToDo> saveChunk(List<NumberedRow> chunk, User user, ImportProgress progress) {
+        // Projekt- und Lehrplan-IDs einmal pro Block auflösen statt pro Zeile
+        Set<Long> requestedProjectIds = chunk.stream()
+                .map(numbered -> numbered.row().projectId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> accessibleProjectIds = requestedProjectIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(projectRepository.findAccessibleIds(requestedProjectIds, user.getId()));
+        Set<Long> requestedCurriculumIds = chunk.stream()
+                .map(NumberedRow::row)
+                .filter(row -> row.curriculumIds() != null)
+                .flatMap(row -> row.curriculumIds().stream())
+                .collect(Collectors.toSet());
+        Set<Long> existingCurriculumIds = requestedCurriculumIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(curriculumRepository.findExistingIds(requestedCurriculumIds));
+
+        User owner = entityManager.getReference(User.class, user.getId());
+        List<ToDo> toDos = new ArrayList<>(chunk.size());
+        List<ToDoCurriculum> links = new ArrayList<>();
+        for (NumberedRow numbered : chunk) {
+            ToDoImportRowPayload row = numbered.row();
+            String problem = validate(row, accessibleProjectIds);
+            if (problem != null) {
+                progress.failed++;
+                progress.error("Row " + numbered.number() + ": " + problem);
+                continue;
+            }
+            ToDo toDo = ToDo.builder()
+                    .creator(user.getUsername())
+                    .title(row.title())
+                    .description(row.description())
+                    .startDate(row.startDate())
+                    .endDate(row.endDate())
+                    .status(row.status() != null ? row.status() : ToDoStatus.TODO)
+                    .project(row.projectId() != null ? entityManager.getReference(Project.class, row.projectId()) : null)
+                    .userList(new ArrayList<>(List.of(owner)))
+                    .build();
+            toDos.add(toDo);
+            if (row.curriculumIds() != null) {
+                row.curriculumIds().stream()
+                        .filter(existingCurriculumIds::contains)
+                        .distinct()
+                        .forEach(curriculumId -> links.add(ToDoCurriculum.builder()
+                                .toDo(toDo)
+                                .curriculum(entityManager.getReference(Curriculum.class, curriculumId))
+                                .startDate(toDo.getStartDate() != null ? toDo.getStartDate() : LocalDate.now())
+                                .endDate(toDo.getEndDate() != null ? toDo.getEndDate() : LocalDate.now())
+                                .build()));
+            }
+        }
+
+        toDoRepository.saveAll(toDos);
+        toDoCurriculumRepository.saveAll(links);
+        // Der Suchindex übernimmt den Block erst nach dem Commit, in einem Schritt für alle Zeilen
+        toDoSearchService.indexAll(toDos);
+        // Persistence Context nach jedem Block leeren, damit der Speicherverbrauch begrenzt bleibt
+        entityManager.flush();
+        entityManager.clear();
+        return toDos;
+    }
+
+    private static String validate(ToDoImportRowPayload row, Set<Long> accessibleProjectIds) {
+        if (row.title() == null || row.title().isBlank()) {
+            return "title is empty";
+        }
+        if (row.title().length() > 255 || (row.description() != null && row.description().length() > 255)) {
+            return "title or description longer than 255 characters";
+        }
+        if (row.startDate() != null && row.endDate() != null && row.endDate().isBefore(row.startDate())) {
+            return "endDate is before startDate";
+        }
+        if (row.projectId() != null && !accessibleProjectIds.contains(row.projectId())) {
+            return "project " + row.projectId() + " not found";
+        }
+        return null;
+    }
+
+    // Zeilennummer in der Datei; durch abgelehnte Zeilen sind die Nummern eines Blocks nicht lückenlos
+    private record NumberedRow(long number, ToDoImportRowPayload row) {
+    }
+
+    private static final class ImportProgress {
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        private final List<String> errors = new ArrayList<>();
+
+        private void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+    }
+}
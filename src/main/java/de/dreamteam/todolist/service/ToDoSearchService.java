@@ -0,0 +1,358 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.entity.ToDo;
+import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.repository.ToDoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.Collectors;
+
+/**
+ * Volltextindex über Titel und Beschreibung der ToDos (Lucene, lokal auf der Festplatte).
+ * Der Index wird bei jeder Änderung inkrementell aktualisiert, innerhalb einer Transaktion erst nach
+ * deren Commit, und kann über {@link #rebuild()} jederzeit aus der Datenbank neu aufgebaut werden.
+ * Suchen sehen Änderungen nach höchstens app.search.refresh-interval-ms; ein Hintergrund-Thread öffnet
+ * den Reader neu, statt dies bei jeder einzelnen Änderung zu tun.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ToDoSearchService {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_USER = "user";
+    private static final String[] SEARCH_FIELDS = {FIELD_TITLE, FIELD_DESCRIPTION};
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ToDoRepository toDoRepository;
+
+    @Value("${app.search.index-dir}")
+    private String indexDir;
+
+    @Value("${app.search.refresh-interval-ms}")
+    private long refreshIntervalMs;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    // Einzelne Änderungen teilen sich die Lesesperre; rebuild() hält die Schreibsperre nur kurz, um den
+    // neu aufgebauten Index zu übernehmen, nie während des Lesens aus der Datenbank
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final Lock rebuildMutex = new ReentrantLock();
+    // Änderungen während eines Neuaufbaus; sie werden nach der Übernahme erneut angewendet, da der
+    // Neuaufbau den betroffenen Datensatz eventuell noch im alten Zustand gelesen hat
+    private final Queue<IndexOperation> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+    private volatile boolean rebuilding;
+
+    @PostConstruct
+    void open() throws IOException {
+        directory = FSDirectory.open(Path.of(indexDir));
+        writer = new IndexWriter(directory, writerConfig());
+        searcherManager = new SearcherManager(writer, null);
+        double refreshSeconds = refreshIntervalMs / 1000.0;
+        reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager, refreshSeconds, refreshSeconds);
+        reopenThread.setName("search-index-refresh");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        writer.commit();
+        writer.close();
+        directory.close();
+    }
+
+    public void index(ToDo toDo) {
+        // Das Dokument entsteht sofort, solange die Benutzerliste in der Transaktion noch geladen werden kann
+        Long toDoId = toDo.getId();
+        Document document = toDocument(toDo, toDo.getUserList().stream().map(User::getId).toList());
+        afterCommit("todo " + toDoId, target -> target.updateDocument(idTerm(toDoId), document));
+    }
+
+    // Für viele ToDos einer Transaktion, z.B. einen Import-Block: eine Sperre und ein Eintrag für alle
+    public void indexAll(List<ToDo> toDos) {
+        if (toDos.isEmpty()) {
+            return;
+        }
+        Map<Long, Document> documents = new LinkedHashMap<>();
+        for (ToDo toDo : toDos) {
+            documents.put(toDo.getId(), toDocument(toDo, toDo.getUserList().stream().map(User::getId).toList()));
+        }
+        afterCommit(documents.size() + " todos", target -> {
+            for (Map.Entry<Long, Document> entry : documents.entrySet()) {
+                target.updateDocument(idTerm(entry.getKey()), entry.getValue());
+            }
+        });
+    }
+
+    public void remove(Long toDoId) {
+        afterCommit("todo " + toDoId, target -> target.deleteDocuments(idTerm(toDoId)));
+    }
+
+    // Bei einem Rollback bleibt der Index unverändert; ohne Transaktion wird die Änderung sofort geschrieben
+    private void afterCommit(String subject, IndexOperation operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(subject, operation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(subject, operation);
+            }
+        });
+    }
+
+    private void apply(String subject, IndexOperation operation) {
+        rebuildLock.readLock().lock();
+        try {
+            operation.apply(writer);
+            if (rebuilding) {
+                pendingDuringRebuild.add(operation);
+            }
+        } catch (IOException e) {
+            // Der Index ist aus der Datenbank wiederherstellbar, daher soll die Anfrage nicht scheitern
+            log.error("Failed to update search index for {}", subject, e);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Liefert die IDs der passenden ToDos, sortiert nach Relevanz. Es werden nur ToDos
+     * gefunden, in deren Benutzerliste der angegebene Benutzer steht.
+     */
+    public List<Long> search(String text, Long userId, int limit) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(SEARCH_FIELDS, analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        Query textQuery;
+        try {
+            textQuery = parser.parse(QueryParser.escape(text));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query: " + text, e);
+        }
+        Query query = new BooleanQuery.Builder()
+                .add(textQuery, BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(FIELD_USER, userId.toString())), BooleanClause.Occur.FILTER)
+                .build();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, limit);
+                StoredFields storedFields = searcher.storedFields();
+                List<Long> ids = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    ids.add(Long.valueOf(storedFields.document(scoreDoc.doc).get(FIELD_ID)));
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Baut den Index vollständig aus der Datenbank neu auf, z.B. nach Verlust des Index-Verzeichnisses.
+     * Die ToDos werden blockweise nach ID in ein eigenes Verzeichnis neben dem Index geschrieben, damit
+     * der Speicherverbrauch begrenzt bleibt. Änderungen aus anderen Threads gehen währenddessen weiter in
+     * den bisherigen Index und werden vorgemerkt. Erst zum Schluss wird unter der Schreibsperre der
+     * bisherige Inhalt durch den neuen ersetzt und die vorgemerkten Änderungen werden erneut angewendet.
+     */
+    public long rebuild() throws IOException {
+        rebuildMutex.lock();
+        Path indexPath = Path.of(indexDir).toAbsolutePath();
+        Path rebuildDir = indexPath.resolveSibling(indexPath.getFileName() + "-rebuild");
+        try {
+            deleteRecursively(rebuildDir);
+            setRebuilding(true);
+            long indexed;
+            try (Directory rebuildDirectory = FSDirectory.open(rebuildDir)) {
+                try (IndexWriter rebuildWriter = new IndexWriter(rebuildDirectory, writerConfig())) {
+                    indexed = indexAllFromDatabase(rebuildWriter);
+                }
+                swapIn(rebuildDirectory);
+            } finally {
+                setRebuilding(false);
+            }
+            log.info("Search index rebuilt with {} todos", indexed);
+            return indexed;
+        } finally {
+            deleteRecursively(rebuildDir);
+            rebuildMutex.unlock();
+        }
+    }
+
+    // Kopiert nur die fertigen Segmentdateien, dauert also nicht so lange wie das Lesen aus der Datenbank
+    private void swapIn(Directory rebuildDirectory) throws IOException {
+        rebuildLock.writeLock().lock();
+        try {
+            writer.deleteAll();
+            writer.addIndexes(rebuildDirectory);
+            for (IndexOperation operation : pendingDuringRebuild) {
+                operation.apply(writer);
+            }
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private void setRebuilding(boolean value) {
+        rebuildLock.writeLock().lock();
+        try {
+            rebuilding = value;
+            pendingDuringRebuild.clear();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private long indexAllFromDatabase(IndexWriter target) throws IOException {
+        log.info("Rebuilding todo search index");
+        long indexed = 0;
+        long afterId = 0;
+        List<ToDo> batch;
+        do {
+            batch = toDoRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Long> ids = batch.stream().map(ToDo::getId).toList();
+            Map<Long, List<Long>> usersByToDo = toDoRepository.findUserIdsByToDoIds(ids).stream()
+                    .collect(Collectors.groupingBy(ToDoRepository.ToDoUserId::getToDoId,
+                            Collectors.mapping(ToDoRepository.ToDoUserId::getUserId, Collectors.toList())));
+            for (ToDo toDo : batch) {
+                target.addDocument(toDocument(toDo, usersByToDo.getOrDefault(toDo.getId(), List.of())));
+            }
+            indexed += batch.size();
+            afterId = batch.getLast().getId();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        return indexed;
+    }
+
+    public int documentCount() {
+        return writer.getDocStats().numDocs;
+    }
+
+    // Macht alle bisher angewendeten Änderungen sofort für Suchen sichtbar, z.B. in Tests
+    void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    // Regelmäßiges Commit, damit Änderungen auch nach einem Neustart erhalten bleiben
+    @Scheduled(fixedDelayString = "${app.search.commit-interval-ms}")
+    void commit() {
+        // Während der Übernahme eines Neuaufbaus committet swapIn selbst
+        if (!rebuildLock.readLock().tryLock()) {
+            return;
+        }
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            log.error("Failed to commit search index", e);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private IndexWriterConfig writerConfig() {
+        return new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static Term idTerm(Long toDoId) {
+        return new Term(FIELD_ID, toDoId.toString());
+    }
+
+    private Document toDocument(ToDo toDo, List<Long> userIds) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, toDo.getId().toString(), Field.Store.YES));
+        if (toDo.getTitle() != null) {
+            document.add(new TextField(FIELD_TITLE, toDo.getTitle(), Field.Store.NO));
+        }
+        if (toDo.getDescription() != null) {
+            document.add(new TextField(FIELD_DESCRIPTION, toDo.getDescription(), Field.Store.NO));
+        }
+        for (Long userId : userIds) {
+            document.add(new StringField(FIELD_USER, userId.toString(), Field.Store.NO));
+        }
+        return document;
+    }
+
+    @FunctionalInterface
+    private interface IndexOperation {
+        void apply(IndexWriter target) throws IOException;
+    }
+}
@@ -1,25 +1,54 @@
 package de.dreamteam.todolist.service;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.dreamteam.todolist.controller.payload.CursorPagePayload;
 import de.dreamteam.todolist.controller.payload.NewToDoPayload;
+import de.dreamteam.todolist.controller.payload.ToDoBatchPayload;
+import de.dreamteam.todolist.controller.payload.ToDoBatchResultPayload;
+import de.dreamteam.todolist.controller.payload.ToDoOperationPayload;
+import de.dreamteam.todolist.controller.payload.ToDoOperationResultPayload;
+import de.dreamteam.todolist.controller.payload.ToDoQueryPayload;
 import de.dreamteam.todolist.controller.payload.UpdateStatusPayload;
 import de.dreamteam.todolist.controller.payload.UpdateToDoPayload;
 import de.dreamteam.todolist.controller.payload.UserTodoPayload;
 import de.dreamteam.todolist.entity.*;
+import de.dreamteam.todolist.model.ToDoOperationType;
+import de.dreamteam.todolist.model.ToDoSortKey;
+import de.dreamteam.todolist.monitoring.JfrEvents;
 import de.dreamteam.todolist.repository.CurriculumRepository;
 import de.dreamteam.todolist.repository.ProjectRepository;
 import de.dreamteam.todolist.repository.ToDoCurriculumRepository;
 import de.dreamteam.todolist.repository.ToDoRepository;
+import de.dreamteam.todolist.repository.ToDoSpecifications;
+import de.dreamteam.todolist.repository.UserTodoRow;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 
@@ -27,22 +56,27 @@ import static java.util.stream.Collectors.toList;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed("todolist.service")
 public class ToDoService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     private final ToDoRepository toDoRepository;
     private final ProjectRepository projectRepository;
     private final CurriculumRepository curriculumRepository;
     private final ToDoCurriculumRepository toDoCurriculumRepository;
-    private final UserService userService;
+    private final CurrentUser currentUser;
+    private final ToDoSearchService toDoSearchService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
-    public void createToDo(NewToDoPayload payload) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        Long userId = userService.findUserByUsername(authentication.getName()).getId();
+    public ToDo createToDo(NewToDoPayload payload) {
         List<User> users = new ArrayList<>();
-        users.add(userService.getUserById(userId));
+        users.add(currentUser.reference());
 
         ToDo toDo = ToDo.builder()
-                .creator(userService.getUserById(userId).getUsername())
+                .creator(currentUser.username())
                 .title(payload.title())
                 .description(payload.description())
                 .endDate(payload.endDate())
@@ -56,30 +90,230 @@ public class ToDoService {
             toDo.setProject(project);
         }
 
-        toDoRepository.save(toDo);
+        ToDo saved = toDoRepository.save(toDo);
+        toDoSearchService.index(saved);
+        return saved;
+    }
+
+    /**
+     * Führt alle Operationen in einer Transaktion aus. Schlägt eine Operation fehl, werden die
+     * restlichen übersprungen und der gesamte Batch zurückgerollt; das Ergebnis enthält trotzdem
+     * für jede Operation den Status.
+     */
+    @Transactional
+    public ToDoBatchResultPayload applyBatch(ToDoBatchPayload payload) {
+        List<ToDoOperationPayload> operations = payload.operations();
+        List<ToDoOperationResultPayload> results = new ArrayList<>(operations.size());
+        boolean failed = false;
+        for (int i = 0; i < operations.size(); i++) {
+            ToDoOperationPayload operation = operations.get(i);
+            if (failed) {
+                results.add(new ToDoOperationResultPayload(i, operation.type(), operation.id(), false, "skipped"));
+                continue;
+            }
+            try {
+                Long id = applyOperation(operation);
+                results.add(new ToDoOperationResultPayload(i, operation.type(), id, true, null));
+            } catch (RuntimeException e) {
+                log.debug("Batch operation {} failed", i, e);
+                failed = true;
+                results.add(new ToDoOperationResultPayload(i, operation.type(), operation.id(), false,
+                        e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+            }
+        }
+
+        if (failed) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+        return new ToDoBatchResultPayload(!failed, results);
+    }
+
+    private Long applyOperation(ToDoOperationPayload operation) {
+        if (operation.type() != ToDoOperationType.CREATE && operation.id() == null) {
+            throw new IllegalArgumentException("id is required for " + operation.type());
+        }
+        return switch (operation.type()) {
+            case CREATE -> createToDo(Objects.requireNonNull(operation.create(), "create is required")).getId();
+            case UPDATE -> {
+                updateToDo(Objects.requireNonNull(operation.update(), "update is required"), operation.id());
+                yield operation.id();
+            }
+            case STATUS -> {
+                updateStatus(operation.id(), Objects.requireNonNull(operation.status(), "status is required"));
+                yield operation.id();
+            }
+            case DELETE -> {
+                deleteTodo(operation.id());
+                yield operation.id();
+            }
+        };
     }
 
     public List<UserTodoPayload> getAllToDos() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        Long userId = userService.findUserByUsername(authentication.getName()).getId();
-
-        return toDoRepository.findAll()
-                .stream().filter(toDo -> toDo.getUserList().stream().anyMatch(user -> user.getId().equals(userId))).map(toDo ->
-                        new UserTodoPayload(
-                                toDo.getId(),
-                                toDo.getTitle(),
-                                toDo.getCreator(),
-                                toDo.getDescription(),
-                                toDo.getStartDate(),
-                                toDo.getEndDate(),
-                                toDo.getStatus(),
-                                toDo.getProject() != null ? toDo.getProject().getId() : null,
-                                toDo.getToDoCurriculumList().stream().map(toDoCurriculum -> toDoCurriculum.getCurriculum().getId()).collect(toList())
-                        )
-                ).toList();
+        Long userId = currentUser.id();
+
+        return toDoRepository.findRowsByUserId(userId)
+                .stream()
+                .map(this::toPayload)
+                .toList();
+    }
+
+    // ETag für getAllToDos: ToDos des Benutzers und ihre Lehrplan-Verknüpfungen, ohne sie zu laden
+    public String getAllToDosETag() {
+        Long userId = currentUser.id();
+        return ETags.of("todos", userId,
+                toDoRepository.findVersionStampByUserId(userId),
+                toDoCurriculumRepository.findVersionStampByToDoUserId(userId));
     }
 
+    // Liefert eine Seite der ToDos des aktuellen Benutzers, beginnend nach dem übergebenen Cursor
+    public CursorPagePayload<UserTodoPayload> getToDoPage(String cursor, int size) {
+        Long userId = currentUser.id();
+
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        long afterId = KeysetCursor.decode(cursor);
+
+        // Eine Zeile mehr laden, um zu erkennen, ob es eine weitere Seite gibt
+        List<UserTodoRow> rows = toDoRepository.findRowPageByUserId(userId, afterId, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<UserTodoRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        return new CursorPagePayload<>(
+                page.stream().map(this::toPayload).toList(),
+                hasMore ? KeysetCursor.encode(page.getLast().id()) : null
+        );
+    }
+
+    // Filtert und sortiert die ToDos des aktuellen Benutzers in einer einzigen Abfrage in der Datenbank
+    public List<UserTodoPayload> findToDos(ToDoQueryPayload query) {
+        Long userId = currentUser.id();
+
+        List<Specification<ToDo>> specifications = new ArrayList<>();
+        specifications.add(ToDoSpecifications.visibleTo(userId));
+        if (query.status() != null && !query.status().isEmpty()) {
+            specifications.add(ToDoSpecifications.statusIn(query.status()));
+        }
+        if (query.startFrom() != null || query.startTo() != null) {
+            specifications.add(ToDoSpecifications.startDateBetween(query.startFrom(), query.startTo()));
+        }
+        if (query.endFrom() != null || query.endTo() != null) {
+            specifications.add(ToDoSpecifications.endDateBetween(query.endFrom(), query.endTo()));
+        }
+        if (query.projectId() != null) {
+            specifications.add(ToDoSpecifications.inProject(query.projectId()));
+        }
+        if (query.curriculumId() != null) {
+            specifications.add(ToDoSpecifications.inCurriculum(query.curriculumId()));
+        }
+
+        ToDoSortKey sortKey = query.sort() != null ? query.sort() : ToDoSortKey.ID;
+        Sort.Direction direction = query.direction() != null ? query.direction() : Sort.Direction.ASC;
+        // Die ID als zweites Kriterium sorgt für eine stabile Reihenfolge
+        Sort sort = Sort.by(direction, sortKey.getProperty()).and(Sort.by(Sort.Direction.ASC, "id"));
+        int limit = Math.clamp(query.size() != null ? query.size() : MAX_PAGE_SIZE, 1, MAX_PAGE_SIZE);
+
+        // project() lädt Projekt und Besitzer über einen Entity Graph in derselben Abfrage
+        List<ToDo> toDos = toDoRepository.findBy(Specification.allOf(specifications),
+                q -> q.sortBy(sort).limit(limit).project("project.owner").all());
+        return toPayloads(toDos);
+    }
+
+    // Volltextsuche über Titel und Beschreibung, nur ToDos des aktuellen Benutzers
+    public List<UserTodoPayload> searchToDos(String text, int size) {
+        Long userId = currentUserId();
+        List<Long> ids = toDoSearchService.search(text, userId, Math.clamp(size, 1, MAX_PAGE_SIZE));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Aus der Datenbank nachladen, damit nur existierende und sichtbare ToDos zurückgegeben werden
+        Map<Long, ToDo> toDos = toDoRepository.findAllByUserIdAndIdIn(userId, ids).stream()
+                .collect(Collectors.toMap(ToDo::getId, Function.identity()));
+        return toPayloads(ids.stream()
+                .map(toDos::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
 
+    public Long currentUserId() {
+        return currentUser.id();
+    }
+
+    /**
+     * Schreibt alle ToDos des Benutzers als NDJSON (eine JSON-Zeile pro ToDo) in den Stream.
+     * Die Zeilen werden über einen Datenbank-Cursor gelesen und blockweise geschrieben; je Block werden
+     * die Lehrplan-IDs in einer Abfrage nachgeladen und danach der Persistence Context geleert, damit der
+     * Speicherverbrauch unabhängig von der Anzahl der ToDos bleibt.
+     */
+    @Transactional(readOnly = true)
+    public void exportToDos(Long userId, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(UserTodoPayload.class);
+        try (Stream<ToDo> toDos = toDoRepository.streamAllByUserId(userId)) {
+            Iterator<ToDo> iterator = toDos.iterator();
+            List<ToDo> chunk = new ArrayList<>(EXPORT_FLUSH_INTERVAL);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == EXPORT_FLUSH_INTERVAL || !iterator.hasNext()) {
+                    for (UserTodoPayload payload : toPayloads(chunk)) {
+                        out.write(writer.writeValueAsBytes(payload));
+                        out.write('\n');
+                    }
+                    out.flush();
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private UserTodoPayload toPayload(UserTodoRow row) {
+        List<Long> curriculumIds = row.curriculumIds() == null || row.curriculumIds().isEmpty()
+                ? List.of()
+                : Arrays.stream(row.curriculumIds().split(",")).map(Long::valueOf).toList();
+        return new UserTodoPayload(
+                row.id(),
+                row.title(),
+                row.creator(),
+                row.description(),
+                row.startDate(),
+                row.endDate(),
+                row.status(),
+                row.projectId(),
+                curriculumIds
+        );
+    }
+
+    // Lädt die Lehrplan-IDs aller übergebenen ToDos in einer Abfrage statt über toDoCurriculumList je ToDo
+    private List<UserTodoPayload> toPayloads(List<ToDo> toDos) {
+        if (toDos.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Long>> curriculumIds = toDoCurriculumRepository
+                .findCurriculumIdsByToDoIds(toDos.stream().map(ToDo::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(ToDoCurriculumRepository.ToDoCurriculumId::getToDoId,
+                        Collectors.mapping(ToDoCurriculumRepository.ToDoCurriculumId::getCurriculumId, toList())));
+        return toDos.stream()
+                .map(toDo -> toPayload(toDo, curriculumIds.getOrDefault(toDo.getId(), List.of())))
+                .toList();
+    }
+
+    private UserTodoPayload toPayload(ToDo toDo, List<Long> curriculumIds) {
+        return new UserTodoPayload(
+                toDo.getId(),
+                toDo.getTitle(),
+                toDo.getCreator(),
+                toDo.getDescription(),
+                toDo.getStartDate(),
+                toDo.getEndDate(),
+                toDo.getStatus(),
+                toDo.getProject() != null ? toDo.getProject().getId() : null,
+                curriculumIds
+        );
+    }
+
+
+    @Transactional
     public void updateToDo(UpdateToDoPayload payload, Long todoId) {
 
         ToDo existingToDo = toDoRepository.findById(todoId).orElseThrow();
@@ -95,8 +329,14 @@ public class ToDoService {
         } else {
             existingToDo.setProject(null);
         }
-        assignToCurriculum(existingToDo, payload);
-        toDoRepository.save(existingToDo);
+        // Aufruf im selben Service geht am Proxy vorbei, daher hier ein eigenes JFR-Ereignis
+        JfrEvents.ServiceEvent curriculumEvent = JfrEvents.ServiceEvent.begin("ToDoService", "assignToCurriculum");
+        try {
+            assignToCurriculum(existingToDo, payload);
+        } finally {
+            curriculumEvent.finish();
+        }
+        toDoSearchService.index(toDoRepository.save(existingToDo));
     }
 
     public void assignToProject(ToDo toDo, Long projectId) {
@@ -106,43 +346,43 @@ public class ToDoService {
         toDoRepository.save(toDo);
     }
 
+    /**
+     * Gleicht die Lehrplan-Verknüpfungen des ToDos mit den IDs aus dem Payload ab.
+     * Es werden nur die Verknüpfungen dieses ToDos gelesen; fehlende werden in einem
+     * saveAll angelegt, überzählige mit einem einzigen DELETE entfernt.
+     */
     public void assignToCurriculum(ToDo existingToDo, UpdateToDoPayload payload) {
-        List<ToDoCurriculum> existingToDoCurriculums = toDoCurriculumRepository.findAll();
-
-        if (payload.curriculumIds() != null && !payload.curriculumIds().isEmpty()) {
-
-            List<Curriculum> curriculums = curriculumRepository.findAllById(payload.curriculumIds());
-            List<ToDoCurriculum> toDoCurriculumList = new ArrayList<>();
-
-            for (Curriculum curriculum : curriculums) {
-
-                boolean tcAlreadyExists = existingToDoCurriculums.stream().anyMatch(toDoCurriculum ->
-                        Objects.equals(toDoCurriculum.getCurriculum().getId(), curriculum.getId()) &&
-                                Objects.equals(toDoCurriculum.getToDo().getId(), existingToDo.getId()));
-
-                if (!tcAlreadyExists) {
-
-                    ToDoCurriculum toDoCurriculum = new ToDoCurriculum();
-                    toDoCurriculum.setToDo(existingToDo);
-                    toDoCurriculum.setCurriculum(curriculum);
-                    toDoCurriculum.setStartDate(existingToDo.getStartDate());
-                    toDoCurriculum.setEndDate(existingToDo.getEndDate());
-                    toDoCurriculumList.add(toDoCurriculum);
-                    toDoCurriculumRepository.save(toDoCurriculum);
-                } else {
-                    List<ToDoCurriculum> toDelete = existingToDoCurriculums.stream().filter(toDoCurriculum ->
-                            Objects.equals(toDoCurriculum.getToDo().getId(), existingToDo.getId()) &&
-                                    !Objects.equals(toDoCurriculum.getCurriculum().getId(), curriculum.getId())).toList();
-                    toDoCurriculumRepository.deleteAll(toDelete);
-                }
-            }
-            existingToDo.setToDoCurriculumList(toDoCurriculumList);
-        } else {
-            List<ToDoCurriculum> toDelete = existingToDoCurriculums.stream()
-                    .filter(toDoCurriculum -> Objects.equals(toDoCurriculum.getToDo().getId(), existingToDo.getId()))
+        Set<Long> requestedIds = payload.curriculumIds() != null
+                ? new HashSet<>(payload.curriculumIds())
+                : Set.of();
+        List<ToDoCurriculumRepository.CurriculumLink> existingLinks =
+                toDoCurriculumRepository.findLinksByToDoId(existingToDo.getId());
+
+        List<Long> linksToDelete = existingLinks.stream()
+                .filter(link -> !requestedIds.contains(link.getCurriculumId()))
+                .map(ToDoCurriculumRepository.CurriculumLink::getId)
+                .toList();
+        Set<Long> linkedCurriculumIds = existingLinks.stream()
+                .map(ToDoCurriculumRepository.CurriculumLink::getCurriculumId)
+                .collect(Collectors.toSet());
+        List<Long> curriculumIdsToLink = requestedIds.stream()
+                .filter(id -> !linkedCurriculumIds.contains(id))
+                .toList();
+
+        if (!linksToDelete.isEmpty()) {
+            toDoCurriculumRepository.deleteAllByIdInBatch(linksToDelete);
+        }
+        if (!curriculumIdsToLink.isEmpty()) {
+            // Unbekannte Lehrplan-IDs werden wie bisher ignoriert
+            List<ToDoCurriculum> newLinks = curriculumRepository.findExistingIds(curriculumIdsToLink).stream()
+                    .map(curriculumId -> ToDoCurriculum.builder()
+                            .toDo(existingToDo)
+                            .curriculum(curriculumRepository.getReferenceById(curriculumId))
+                            .startDate(existingToDo.getStartDate())
+                            .endDate(existingToDo.getEndDate())
+                            .build())
                     .toList();
-            toDoCurriculumRepository.deleteAll(toDelete);
-            existingToDo.setToDoCurriculumList(null);
+            toDoCurriculumRepository.saveAll(newLinks);
         }
     }
 
@@ -156,32 +396,20 @@ public class ToDoService {
         return toDoRepository.findById(todoId).orElseThrow();
     }
 
+    @Transactional
     public void deleteTodo(Long todoId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        Long userId = userService.findUserByUsername(authentication.getName()).getId();
-
         ToDo compost = toDoRepository.findById(todoId).orElseThrow();
 
-        if (compost.getProject() == null) {
-            toDoRepository.deleteById(todoId);
-        } else {
-            Project preeeeejekt = compost.getProject();
-            preeeeejekt.getToDos().remove(compost);
-
-            List<Long>curryIds = new ArrayList<>();
-            List<Long>userIds = new ArrayList<>();
-            userIds.add(userId);
-            UpdateToDoPayload payload = new UpdateToDoPayload(-1L, compost.getTitle(), compost.getDescription(), compost.getEndDate(),compost.getStartDate(), compost.getStatus(),compost.getProject().getId(),curryIds,userIds);
-            assignToCurriculum(compost, payload);
-
-            compost.setProject(null);
-
-
-            toDoRepository.delete(compost);
-
+        // Zuerst die Lehrplan-Verknüpfungen entfernen, sonst verletzt das Löschen den Fremdschlüssel
+        toDoCurriculumRepository.deleteAllByToDoId(todoId);
 
+        Project project = compost.getProject();
+        // Die Aufgabenliste des Projekts nur anfassen, wenn sie ohnehin schon geladen ist
+        if (project != null && Hibernate.isInitialized(project.getToDos())) {
+            project.getToDos().remove(compost);
         }
+        toDoRepository.delete(compost);
 
-
+        toDoSearchService.remove(todoId);
     }
 }
@@ -0,0 +1,39 @@
+package de.dreamteam.todolist.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token-Bucket ohne Sperren: der Zustand ist unveränderlich und wird per compareAndSet ersetzt.
+ * Nachgefüllt wird kontinuierlich, {@code capacity} Tokens je {@code period}.
+ */
+final class TokenBucket {
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(int capacity, Duration period, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / period.toNanos();
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    // 0, wenn ein Token entnommen wurde, sonst die Wartezeit in Nanosekunden bis zum nächsten Token
+    long tryConsume(long now) {
+        while (true) {
+            State current = state.get();
+            long elapsed = Math.max(0, now - current.updatedAt());
+            double tokens = Math.min(capacity, current.tokens() + elapsed * tokensPerNano);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,18 +1,47 @@
 package de.dreamteam.todolist.service;
 
 import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.entity.UserToken;
+import de.dreamteam.todolist.model.TokenPurpose;
+import de.dreamteam.todolist.repository.UserTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
 
+/**
+ * Einmal-Tokens für Kontobestätigung und Passwort-Reset, gespeichert in der Tabelle user_tokens.
+ * In der Datenbank steht nur der SHA-256-Hash; gesucht wird über dessen eindeutigen Index.
+ */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class TokenService {
 
     private static final int TOKEN_LENGTH = 30;
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
     private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Duration VERIFICATION_TOKEN_TTL = Duration.ofDays(1);
+    private static final Duration PASSWORD_RESET_TOKEN_TTL = Duration.ofHours(1);
+
+    private final UserTokenRepository userTokenRepository;
+
+    @Value("${app.tokens.purge-batch-size}")
+    private int purgeBatchSize;
 
     public String generateToken() {
         byte[] randomBytes = new byte[TOKEN_LENGTH];
@@ -20,20 +49,70 @@ public class TokenService {
         return ENCODER.encodeToString(randomBytes);
     }
 
-    public void setVerificationToken(User user) {
+    // Ersetzt ein vorhandenes Token desselben Zwecks und liefert das neue Token im Klartext für die E-Mail
+    @Transactional
+    public String issueToken(User user, TokenPurpose purpose) {
+        userTokenRepository.deleteByUserIdAndPurpose(user.getId(), purpose);
         String token = generateToken();
-        user.setVerificationToken(token);
-        user.setVerificationTokenExpiry(LocalDateTime.now().plusDays(1));
-        user.setEnabled(false);
+        userTokenRepository.save(UserToken.builder()
+                .tokenHash(hash(token))
+                .purpose(purpose)
+                .user(user)
+                .expiresAt(LocalDateTime.now().plus(ttl(purpose)))
+                .build());
+        return token;
     }
 
-    public void setPasswordResetToken(User user) {
-        String token = generateToken();
-        user.setResetToken(token);
-        user.setResetTokenExpiry(LocalDateTime.now().plusHours(1));
+    public Optional<UserToken> findValidToken(String token, TokenPurpose purpose) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return userTokenRepository.findByTokenHashAndPurpose(hash(token), purpose)
+                .filter(userToken -> !isTokenExpired(userToken.getExpiresAt()));
+    }
+
+    public boolean hasValidToken(User user, TokenPurpose purpose) {
+        return userTokenRepository.existsByUser_IdAndPurposeAndExpiresAtAfter(user.getId(), purpose, LocalDateTime.now());
+    }
+
+    public void consumeToken(UserToken userToken) {
+        userTokenRepository.delete(userToken);
     }
 
     public boolean isTokenExpired(LocalDateTime expiryDate) {
         return expiryDate == null || LocalDateTime.now().isAfter(expiryDate);
     }
-}
\ No newline at end of file
+
+    // Abgelaufene Tokens in kleinen Blöcken löschen, damit keine langen Sperren auf der Tabelle entstehen
+    @Scheduled(fixedDelayString = "${app.tokens.purge-interval-ms}")
+    void purgeExpiredTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        long deleted = 0;
+        List<Long> ids;
+        do {
+            ids = userTokenRepository.findExpiredIds(now, Limit.of(purgeBatchSize));
+            if (!ids.isEmpty()) {
+                deleted += userTokenRepository.deleteByIdIn(ids);
+            }
+        } while (ids.size() == purgeBatchSize);
+        if (deleted > 0) {
+            log.info("Purged {} expired user tokens", deleted);
+        }
+    }
+
+    private static Duration ttl(TokenPurpose purpose) {
+        return switch (purpose) {
+            case VERIFICATION -> VERIFICATION_TOKEN_TTL;
+            case PASSWORD_RESET -> PASSWORD_RESET_TOKEN_TTL;
+        };
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -3,43 +3,47 @@ package de.dreamteam.todolist.service;
 import de.dreamteam.todolist.controller.payload.NewUserPayload;
 import de.dreamteam.todolist.controller.payload.UpdateUserPayload;
 import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.entity.UserToken;
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import de.dreamteam.todolist.model.TokenPurpose;
 import de.dreamteam.todolist.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Timed("todolist.service")
 public class UserService {
 
     private final UserRepository userRepository;
     private final TokenService tokenService;
     private final EmailService emailService;
-    private static final int MAX_RESET_ATTEMPTS = 3;
-    private static final int MAX_VERIFICATION_ATTEMPTS = 3;
-
-
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    private final PasswordEncoder passwordEncoder;
+    private final AccessTokenService accessTokenService;
 
+    // Kommt aus dem Second-Level-Cache von Hibernate (Region user) als verwaltete Entity der aktuellen Session;
+    // Änderungen hält Hibernate dort selbst aktuell
     public User getUserById(Long id) {
         return userRepository.findById(id).orElse(null);
     }
 
+    @Transactional
     public void saveUser(NewUserPayload payload) {
         if (isExpiredVerification(payload.email())) {
+            // Die Tokens des Benutzers werden per ON DELETE CASCADE mitgelöscht
             userRepository.deleteByEmail(payload.email());
+            userRepository.flush();
         }
 
         User user = User.builder()
@@ -47,19 +51,21 @@ public class UserService {
                 .lastName(payload.lastName())
                 .username(payload.username())
                 .email(payload.email())
-                .password(passwordEncoder().encode(payload.password()))
+                .password(passwordEncoder.encode(payload.password()))
+                .enabled(false)
                 .build();
 
-        tokenService.setVerificationToken(user);
-
         User savedUser = userRepository.save(user);
+        String token = tokenService.issueToken(savedUser, TokenPurpose.VERIFICATION);
 
-        emailService.sendVerificationEmail(savedUser.getEmail(), savedUser.getVerificationToken());
+        emailService.sendVerificationEmail(savedUser.getEmail(), token);
     }
 
+    // Nicht bestätigtes Konto, dessen Bestätigungs-Token abgelaufen ist; bestätigte Konten bleiben erhalten
     private boolean isExpiredVerification(String email) {
         User existingUser = userRepository.findUserByEmail(email);
-        return existingUser != null && tokenService.isTokenExpired(existingUser.getVerificationTokenExpiry());
+        return existingUser != null && !existingUser.isEnabled()
+                && !tokenService.hasValidToken(existingUser, TokenPurpose.VERIFICATION);
     }
 
     public void updateUser(UpdateUserPayload payload) {
@@ -75,7 +81,12 @@ public class UserService {
         existingUser.setUsername(payload.username());
 
         if (payload.password() != null && !payload.password().isEmpty()) {
-            existingUser.setPassword(passwordEncoder().encode(payload.password()));
+            existingUser.setPassword(passwordEncoder.encode(payload.password()));
+            // Mit dem alten Passwort erlangte Zugriffstokens sollen nicht weiter gelten
+            accessTokenService.revokeAllForUser(existingUser.getId());
+        }
+        if (payload.digestFrequency() != null) {
+            existingUser.setDigestFrequency(payload.digestFrequency());
         }
 
         userRepository.save(existingUser);
@@ -89,6 +100,7 @@ public class UserService {
         }
 
         userRepository.delete(existingUser);
+        accessTokenService.revokeAllForUser(existingUser.getId());
     }
 
     public User findUserByUsername(String username) {
@@ -101,17 +113,14 @@ public class UserService {
 
     @Transactional
     public boolean verifyUser(String token) {
-        User user = userRepository.findUserByVerificationToken(token);
-
-        if (user == null || tokenService.isTokenExpired(user.getVerificationTokenExpiry())) {
+        Optional<UserToken> verificationToken = tokenService.findValidToken(token, TokenPurpose.VERIFICATION);
+        if (verificationToken.isEmpty()) {
             return false;
         }
+        User user = verificationToken.get().getUser();
+        tokenService.consumeToken(verificationToken.get());
 
         user.setEnabled(true);
-        user.setVerificationToken(null);
-        user.setVerificationTokenExpiry(null);
-        user.setVerificationAttempts(null);
-        user.setVerificationAttemptsTimestamp(null);
         userRepository.save(user);
 
         autoLogin(user);
@@ -120,8 +129,9 @@ public class UserService {
     }
 
     private void autoLogin(User user) {
-        org.springframework.security.core.userdetails.User principal =
-                new org.springframework.security.core.userdetails.User(
+        AuthenticatedUser principal =
+                new AuthenticatedUser(
+                        user.getId(),
                         user.getUsername(),
                         user.getPassword(),
                         Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
@@ -135,57 +145,44 @@ public class UserService {
         SecurityContextHolder.setContext(context);
     }
 
+    // Beim Login mit höherer konfigurierter BCrypt-Stärke neu berechneter Hash
     @Transactional
-    public boolean initiatePasswordReset(String email) {
-        User user = userRepository.findUserByEmail(email);
-
+    public void updatePasswordHash(String username, String encodedPassword) {
+        User user = userRepository.findUserByUsername(username);
         if (user == null) {
-            return false;
-        }
-
-        if (!checkResetAttempts(user)) {
-            return false;
+            return;
         }
-
-        tokenService.setPasswordResetToken(user);
+        user.setPassword(encodedPassword);
         userRepository.save(user);
-
-        emailService.sendPasswordResetEmail(user.getEmail(), user.getResetToken());
-
-        return true;
     }
 
-    private boolean checkResetAttempts(User user) {
-        LocalDateTime now = LocalDateTime.now();
-
-        if (user.getResetAttemptsTimestamp() == null ||
-                now.minusHours(1).isAfter(user.getResetAttemptsTimestamp())) {
-            user.setPasswordResetAttempts(1);
-            user.setResetAttemptsTimestamp(now);
-            return true;
-        }
+    @Transactional
+    public boolean initiatePasswordReset(String email) {
+        User user = userRepository.findUserByEmail(email);
 
-        if (user.getPasswordResetAttempts() >= MAX_RESET_ATTEMPTS) {
+        if (user == null) {
             return false;
         }
 
-        user.setPasswordResetAttempts(user.getPasswordResetAttempts() + 1);
+        String token = tokenService.issueToken(user, TokenPurpose.PASSWORD_RESET);
+
+        emailService.sendPasswordResetEmail(user.getEmail(), token);
+
         return true;
     }
 
     @Transactional
     public boolean resetPassword(String token, String newPassword) {
-        User user = userRepository.findUserByResetToken(token);
-
-        if (user == null || tokenService.isTokenExpired(user.getResetTokenExpiry())) {
+        Optional<UserToken> resetToken = tokenService.findValidToken(token, TokenPurpose.PASSWORD_RESET);
+        if (resetToken.isEmpty()) {
             return false;
         }
+        User user = resetToken.get().getUser();
+        tokenService.consumeToken(resetToken.get());
 
-        user.setPassword(passwordEncoder().encode(newPassword));
-        user.setResetToken(null);
-        user.setResetTokenExpiry(null);
-        user.setPasswordResetAttempts(null);
+        user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        accessTokenService.revokeAllForUser(user.getId());
 
         return true;
     }
@@ -194,34 +191,14 @@ public class UserService {
     public boolean initiateVerificationTokenResend(String email) {
         User user = userRepository.findUserByEmail(email);
 
-        if (user == null || tokenService.isTokenExpired(user.getVerificationTokenExpiry())) {
-            return false;
-        }
-
-        if (!checkVerificationAttempts(user)) {
+        if (user == null || !tokenService.hasValidToken(user, TokenPurpose.VERIFICATION)) {
             return false;
         }
 
-        emailService.sendVerificationEmail(user.getEmail(), user.getVerificationToken());
-
-        return true;
-    }
-
-    private boolean checkVerificationAttempts(User user) {
-        LocalDateTime now = LocalDateTime.now();
-
-        if (user.getVerificationAttempts() == null ||
-                now.minusHours(1).isAfter(user.getVerificationAttemptsTimestamp())) {
-            user.setPasswordResetAttempts(1);
-            user.setResetAttemptsTimestamp(now);
-            return true;
-        }
-
-        if (user.getVerificationAttempts() >= MAX_VERIFICATION_ATTEMPTS) {
-            return false;
-        }
+        // Nur der Hash ist gespeichert, daher wird ein neues Token ausgestellt und das alte ersetzt
+        String token = tokenService.issueToken(user, TokenPurpose.VERIFICATION);
+        emailService.sendVerificationEmail(user.getEmail(), token);
 
-        user.setVerificationAttempts(user.getVerificationAttempts() + 1);
         return true;
     }
 }
@@ -0,0 +1,71 @@
+package de.dreamteam.todolist.config;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dieselbe Konfiguration wie EndpointPerformanceTest, damit beide Klassen den Kontext und die eingebettete
+// Datenbank teilen; eine zweite Instanz würde dessen Latenz-Budgets verfälschen
+@SpringBootTest(properties = {
+        "app.rate-limit.enabled=false",
+        "app.search.index-dir=${java.io.tmpdir}/todolist-perf-search-index"
+})
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+        provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class IdSequenceInitializerTest {
+
+    // Weit hinter den Testdaten von EndpointPerformanceTest
+    private static final long EXISTING_ID = 50_000_000;
+
+    @Autowired
+    private IdSequenceInitializer idSequenceInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long sequenceValue;
+
+    @BeforeEach
+    void setUp() {
+        sequenceValue = jdbcTemplate.queryForObject("select last_value from todo_seq", Long.class);
+    }
+
+    // Die Sequenz darf nicht hinter ihrem Stand vor dem Test zurückbleiben, der Kontext wird weiterverwendet
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from todo where id = ?", EXISTING_ID);
+        jdbcTemplate.queryForObject("select setval('todo_seq', greatest(last_value, ?)) from todo_seq",
+                Long.class, sequenceValue);
+    }
+
+    @Test
+    void movesSequencePastExistingIds() {
+        // Zeile wie aus der Zeit vor der Sequenz, die Sequenz steht noch am Anfang
+        jdbcTemplate.update("insert into todo (id, version, title, creator, description, status) values (?, 0, ?, ?, ?, ?)",
+                EXISTING_ID, "Alte Aufgabe", "sequence-user", "Beschreibung", "TODO");
+        jdbcTemplate.execute("select setval('todo_seq', 1)");
+
+        idSequenceInitializer.afterSingletonsInstantiated();
+
+        // Der nächste Block des pooled-Optimizers umfasst die 50 Werte bis einschließlich nextval
+        long next = jdbcTemplate.queryForObject("select nextval('todo_seq')", Long.class);
+        assertThat(next - 49).isGreaterThan(EXISTING_ID);
+    }
+
+    @Test
+    void leavesSequenceAheadOfExistingIdsUnchanged() {
+        jdbcTemplate.execute("select setval('todo_seq', 100000000)");
+
+        idSequenceInitializer.afterSingletonsInstantiated();
+
+        assertThat(jdbcTemplate.queryForObject("select nextval('todo_seq')", Long.class)).isEqualTo(100000050);
+    }
+}
@@ -0,0 +1,385 @@
+package de.dreamteam.todolist.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.dreamteam.todolist.entity.*;
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.service.ToDoSearchService;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Latenz- und Abfrage-Budgets je Endpunkt gegen ein eingebettetes PostgreSQL (zonky, ohne Docker
+ * und ohne externe Datenbank). Die Daten umfassen einige tausend Benutzer, Projekte und ToDos; der
+ * Benutzer der Anfragen hat deutlich mehr ToDos als die übrigen, damit ein N+1 sofort auffällt.
+ * Die Zahl der Anweisungen kommt aus dem Header des SqlBudgetFilter und wird in jedem Lauf geprüft.
+ * Die Latenz-Budgets hängen vom Build-Rechner ab und laufen nur auf Anforderung, z.B. mit
+ * -Dperf.latency-factor=1 oder auf langsamen Rechnern mit -Dperf.latency-factor=2.
+ */
+// Eigener Indexordner, da der Kontext neben dem der übrigen Tests im Cache bleibt und Lucene den Ordner sperrt
+@SpringBootTest(properties = {
+        "app.rate-limit.enabled=false",
+        "app.search.index-dir=${java.io.tmpdir}/todolist-perf-search-index"
+})
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+        provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointPerformanceTest {
+
+    private static final int USERS = 2000;
+    private static final int PROJECTS = 500;
+    private static final int TODOS_PER_USER = 10;
+    private static final int MAIN_USER_TODOS = 500;
+    private static final int MAIN_USER_CURRICULUM_ENTRIES = 100;
+    private static final int FLUSH_INTERVAL = 500;
+    private static final int WARMUP_RUNS = 5;
+    // Bei 40 Messungen bleiben die zwei langsamsten (GC, Index-Commit im Hintergrund) außerhalb des p95
+    private static final int MEASURED_RUNS = 40;
+    private static final String PASSWORD = "Secret123";
+    private static final String API = "/todo-list-api";
+    private static final String LATENCY_FACTOR_PROPERTY = "perf.latency-factor";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ToDoSearchService toDoSearchService;
+
+    private AuthenticatedUser principal;
+    private Long mainProjectId;
+    private Long mainToDoId;
+    private Long curriculumToDoId;
+    private Long freeToDoId;
+    private Long standaloneToDoId;
+
+    @BeforeAll
+    void seed() throws IOException {
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+        List<Long> userIds = new ArrayList<>(USERS);
+        List<Long> projectIds = new ArrayList<>(PROJECTS);
+        List<Long> mainUserToDoIds = new ArrayList<>(MAIN_USER_TODOS);
+
+        transactionTemplate.executeWithoutResult(_ -> {
+            for (int i = 0; i < USERS; i++) {
+                User user = User.builder()
+                        .firstName("Vorname" + i)
+                        .lastName("Nachname" + i)
+                        .username("perf-user-" + i)
+                        .email("perf-user-" + i + "@example.com")
+                        .password(encodedPassword)
+                        .enabled(true)
+                        .build();
+                entityManager.persist(user);
+                userIds.add(user.getId());
+                flushPeriodically(i);
+            }
+        });
+
+        // Der erste Benutzer ist Mitglied in jedem fünften Projekt und besitzt die ersten zehn
+        transactionTemplate.executeWithoutResult(_ -> {
+            for (int i = 0; i < PROJECTS; i++) {
+                Project project = Project.builder()
+                        .title("Projekt " + i)
+                        .description("Beschreibung " + i)
+                        .owner(userReference(i < 10 ? userIds.getFirst() : userIds.get(1 + i % (USERS - 1))))
+                        .build();
+                project.getUsers().add(userReference(userIds.get((i * 7) % USERS)));
+                if (i % 5 == 0) {
+                    project.getUsers().add(userReference(userIds.getFirst()));
+                }
+                entityManager.persist(project);
+                projectIds.add(project.getId());
+                flushPeriodically(i);
+            }
+        });
+
+        transactionTemplate.executeWithoutResult(_ -> {
+            LocalDate today = LocalDate.now();
+            int count = 0;
+            for (int u = 0; u < USERS; u++) {
+                int toDos = u == 0 ? MAIN_USER_TODOS : TODOS_PER_USER;
+                for (int i = 0; i < toDos; i++) {
+                    ToDo toDo = ToDo.builder()
+                            .title("Aufgabe " + u + "-" + i)
+                            .description("Beschreibung der Aufgabe " + i)
+                            .creator("perf-user-" + u)
+                            .startDate(today)
+                            .endDate(today.plusDays(i % 60))
+                            .status(ToDoStatus.values()[i % ToDoStatus.values().length])
+                            .project(entityManager.getReference(Project.class,
+                                    u == 0 ? projectIds.get(i % 10) : projectIds.get((u + i) % PROJECTS)))
+                            .userList(new ArrayList<>(List.of(userReference(userIds.get(u)))))
+                            .build();
+                    entityManager.persist(toDo);
+                    if (u == 0) {
+                        mainUserToDoIds.add(toDo.getId());
+                    }
+                    flushPeriodically(count++);
+                }
+            }
+        });
+
+        transactionTemplate.executeWithoutResult(_ -> {
+            Curriculum curriculum = Curriculum.builder()
+                    .title("Lehrplan")
+                    .user(userReference(userIds.getFirst()))
+                    .build();
+            entityManager.persist(curriculum);
+            for (int i = 0; i < MAIN_USER_CURRICULUM_ENTRIES; i++) {
+                entityManager.persist(ToDoCurriculum.builder()
+                        .toDo(entityManager.getReference(ToDo.class, mainUserToDoIds.get(i)))
+                        .curriculum(curriculum)
+                        .startDate(LocalDate.now())
+                        .endDate(LocalDate.now().plusDays(i % 30))
+                        .build());
+            }
+            // Ohne Projekt und Lehrplan, da GET /todos/{id} die Entity selbst serialisiert
+            ToDo standalone = ToDo.builder()
+                    .title("Einzelne Aufgabe")
+                    .description("Ohne Projekt")
+                    .creator("perf-user-0")
+                    .status(ToDoStatus.TODO)
+                    .userList(new ArrayList<>(List.of(userReference(userIds.getFirst()))))
+                    .build();
+            entityManager.persist(standalone);
+            standaloneToDoId = standalone.getId();
+        });
+
+        principal = new AuthenticatedUser(userIds.getFirst(), "perf-user-0", encodedPassword,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        mainProjectId = projectIds.getFirst();
+        mainToDoId = mainUserToDoIds.getLast();
+        curriculumToDoId = mainUserToDoIds.getFirst();
+        // Nicht im Lehrplan, wird dort nur vorübergehend eingetragen
+        freeToDoId = mainUserToDoIds.get(MAIN_USER_CURRICULUM_ENTRIES);
+
+        // Die Daten wurden am Service vorbei angelegt und fehlen daher im Suchindex
+        toDoSearchService.rebuild();
+    }
+
+    // Name, Anfrage, maximale Anweisungen, maximale p95-Latenz in ms
+    Stream<Arguments> endpoints() throws Exception {
+        return Stream.of(
+                Arguments.of("GET todos", get(API + "/todos"), 5, 300),
+                Arguments.of("GET todos page", get(API + "/todos/page").param("size", "50"), 5, 100),
+                Arguments.of("GET todos filter", get(API + "/todos/filter")
+                        .param("status", "TODO").param("sort", "END_DATE"), 5, 200),
+                Arguments.of("GET todos search", get(API + "/todos/search").param("q", "Aufgabe"), 5, 150),
+                Arguments.of("GET todo", get(API + "/todos/" + standaloneToDoId), 6, 100),
+                // Liefert alle Aufgaben aller Projekte (rund 4000 Einträge), daher das größere Latenz-Budget
+                Arguments.of("GET projects", get(API + "/projects"), 6, 450),
+                Arguments.of("GET projects summary", get(API + "/projects").param("summary", "true"), 6, 150),
+                Arguments.of("GET project", get(API + "/projects/" + mainProjectId), 6, 150),
+                Arguments.of("GET project tasks", get(API + "/projects/" + mainProjectId + "/tasks"), 6, 100),
+                Arguments.of("GET curriculum", get(API + "/curriculum/current"), 6, 150),
+                Arguments.of("GET curriculum todos", get(API + "/curriculum/todos"), 6, 150),
+                Arguments.of("GET current user", get(API + "/auth/current"), 3, 50),
+                Arguments.of("GET user", get(API + "/users").param("username", "perf-user-0"), 3, 50),
+                Arguments.of("PATCH todo status", patch(API + "/todos/" + mainToDoId + "/status").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("status", "DOING"))), 8, 150),
+                Arguments.of("POST todo", post(API + "/todos").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of(
+                                "title", "Neue Aufgabe",
+                                "description", "Aus dem Performance-Test",
+                                "startDate", LocalDate.now().toString(),
+                                "endDate", LocalDate.now().plusDays(3).toString(),
+                                "status", "TODO"))), 10, 150),
+                Arguments.of("POST todos batch", post(API + "/todos/batch").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("operations", List.of(
+                                Map.of("type", "CREATE", "create", Map.of(
+                                        "title", "Aufgabe aus dem Batch",
+                                        "description", "Aus dem Performance-Test",
+                                        "startDate", LocalDate.now().toString(),
+                                        "endDate", LocalDate.now().plusDays(3).toString(),
+                                        "status", "TODO")),
+                                Map.of("type", "STATUS", "id", mainToDoId, "status", Map.of("status", "DOING")))))), 6, 150),
+                Arguments.of("POST todos import", post(API + "/todos/import").with(csrf())
+                        .contentType("text/csv")
+                        .content("""
+                                title,description,startDate,endDate,status
+                                Import 1,Aus dem Performance-Test,2025-01-01,2025-01-10,TODO
+                                Import 2,Aus dem Performance-Test,2025-01-01,2025-01-10,DOING
+                                Import 3,Aus dem Performance-Test,2025-01-01,2025-01-10,DONE
+                                """), 6, 150),
+                // Zählt nur die Anfrage selbst, das Streaming läuft in einem anderen Thread (siehe
+                // ToDoServiceQueryCountTest); die Latenz umfasst dagegen den gesamten Export
+                Arguments.of("GET todos export", get(API + "/todos/export"), 3, 300),
+                Arguments.of("PATCH curriculum", patch(API + "/curriculum/current").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("title", "Lehrplan"))), 4, 100),
+                Arguments.of("PATCH curriculum todo", patch(API + "/curriculum/current/update-todo/" + curriculumToDoId)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of(
+                                "todoId", curriculumToDoId,
+                                "startDate", LocalDate.now().toString(),
+                                "endDate", LocalDate.now().plusDays(7).toString()))), 6, 100)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void endpointStaysWithinStatementBudget(String name, MockHttpServletRequestBuilder request, int maxStatements,
+                                            long maxMillis) throws Exception {
+        assertStatementBudget(name, request.with(user(principal)), maxStatements);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    @EnabledIfSystemProperty(named = LATENCY_FACTOR_PROPERTY, matches = ".+")
+    void endpointStaysWithinLatencyBudget(String name, MockHttpServletRequestBuilder request, int maxStatements,
+                                          long maxMillis) throws Exception {
+        assertLatencyBudget(name, request.with(user(principal)), maxStatements, maxMillis);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("anonymousEndpoints")
+    void anonymousEndpointStaysWithinStatementBudget(String name, RequestBuilder request, int maxStatements,
+                                                     long maxMillis) throws Exception {
+        assertStatementBudget(name, request, maxStatements);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("anonymousEndpoints")
+    @EnabledIfSystemProperty(named = LATENCY_FACTOR_PROPERTY, matches = ".+")
+    void anonymousEndpointStaysWithinLatencyBudget(String name, RequestBuilder request, int maxStatements,
+                                                   long maxMillis) throws Exception {
+        assertLatencyBudget(name, request, maxStatements, maxMillis);
+    }
+
+    // Eintragen und Austragen lassen sich nicht beliebig wiederholen, daher je eine Anfrage ohne Latenzmessung
+    @Test
+    void curriculumEntryAddAndRemoveStayWithinStatementBudget() throws Exception {
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        assertStatements("POST curriculum todo", perform(post(API + "/curriculum/current/add-todo")
+                .with(csrf()).with(user(principal))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of(
+                        "todoId", freeToDoId,
+                        "startDate", LocalDate.now().toString(),
+                        "endDate", LocalDate.now().plusDays(7).toString())))), 5);
+
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        assertStatements("DELETE curriculum todo", perform(delete(API + "/curriculum/current/remove-todo/" + freeToDoId)
+                .with(csrf()).with(user(principal))), 6);
+    }
+
+    Stream<Arguments> anonymousEndpoints() throws Exception {
+        return Stream.of(
+                Arguments.of("POST login", post(API + "/auth/login").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", "perf-user-0", "password", PASSWORD))), 3, 100)
+        );
+    }
+
+    private void assertStatementBudget(String name, RequestBuilder request, int maxStatements) throws Exception {
+        // Mit leerem Second-Level-Cache fällt ein N+1 auf, das sonst von Cache-Treffern verdeckt wird
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        assertStatements(name + " (cold cache)", perform(request), maxStatements);
+        assertStatements(name, perform(request), maxStatements);
+    }
+
+    private void assertLatencyBudget(String name, RequestBuilder request, int maxStatements, long maxMillis)
+            throws Exception {
+        double latencyFactor = Double.parseDouble(System.getProperty(LATENCY_FACTOR_PROPERTY));
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            perform(request);
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            MvcResult result = perform(request);
+            nanos[i] = System.nanoTime() - start;
+            assertStatements(name, result, maxStatements);
+        }
+        Arrays.sort(nanos);
+        long p95Millis = TimeUnit.NANOSECONDS.toMillis(nanos[(int) Math.ceil(0.95 * MEASURED_RUNS) - 1]);
+        assertThat(p95Millis).as("%s: p95 latency in ms", name)
+                .isLessThanOrEqualTo(Math.round(maxMillis * latencyFactor));
+    }
+
+    // Der Export wird asynchron gestreamt, erst der zweite Dispatch liefert den Body
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().is2xxSuccessful());
+        } else {
+            assertThat(result.getResponse().getStatus()).as("HTTP status").isBetween(200, 299);
+        }
+        return result;
+    }
+
+    private static void assertStatements(String name, MvcResult result, int maxStatements) {
+        String statements = result.getResponse().getHeader("X-SQL-Statements");
+        assertThat(statements).as("%s: X-SQL-Statements header", name).isNotNull();
+        assertThat(Integer.parseInt(statements)).as("%s: SQL statements", name).isLessThanOrEqualTo(maxStatements);
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private User userReference(Long id) {
+        return entityManager.getReference(User.class, id);
+    }
+
+    private void flushPeriodically(int index) {
+        if ((index + 1) % FLUSH_INTERVAL == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package de.dreamteam.todolist.controller;
+
+import de.dreamteam.todolist.entity.ToDo;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpExceptionHandlerTest {
+
+    private final HttpExceptionHandler handler = new HttpExceptionHandler(messageSource());
+
+    @Test
+    void concurrentModificationIsAConflict() {
+        ResponseEntity<Map<String, String>> response = handler.handleOptimisticLockingFailure(
+                new ObjectOptimisticLockingFailureException(ToDo.class, 1L), Locale.GERMAN);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).containsOnlyKeys("error")
+                .hasEntrySatisfying("error", error -> assertThat(error).startsWith("Der Eintrag wurde inzwischen"));
+    }
+
+    private static ResourceBundleMessageSource messageSource() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        return messageSource;
+    }
+}
@@ -0,0 +1,93 @@
+package de.dreamteam.todolist.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.autoconfigure.endpoint.EndpointAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointAutoConfiguration;
+import org.springframework.boot.actuate.endpoint.web.ExposableWebEndpoint;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointsSupplier;
+import org.springframework.boot.actuate.endpoint.web.WebOperation;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JfrRecordingEndpointTest {
+
+    @TempDir
+    private Path dumpDir;
+
+    private JfrRecordingEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new JfrRecordingEndpoint();
+        ReflectionTestUtils.setField(endpoint, "settings", "default");
+        ReflectionTestUtils.setField(endpoint, "maxAge", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(endpoint, "maxSize", DataSize.ofMegabytes(10));
+        ReflectionTestUtils.setField(endpoint, "dumpDir", dumpDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    void dumpWritesLabelledFileIntoDumpDir() throws Exception {
+        endpoint.start();
+
+        Map<String, Object> result = endpoint.dump("incident-42");
+
+        Path file = Path.of((String) result.get("file"));
+        assertThat(file.getParent()).isEqualTo(dumpDir.toAbsolutePath());
+        assertThat(file.getFileName().toString()).startsWith("todolist-incident-42-").endsWith(".jfr");
+        assertThat(Files.size(file)).isPositive();
+    }
+
+    @Test
+    void dumpRejectsLabelsThatAreNoPlainFileName() throws Exception {
+        endpoint.start();
+
+        assertThat(endpoint.dump("../outside")).containsKey("error");
+        assertThat(endpoint.dump("")).containsKey("error");
+        try (var files = Files.list(dumpDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    // Ohne Selektor hätten start und dump beide POST /actuator/jfr, Spring MVC meldet dann eine mehrdeutige Zuordnung
+    @Test
+    void operationsHaveDistinctWebMappings() {
+        new WebApplicationContextRunner()
+                // Wie in der Anwendung, für Duration und DataSize in den @Value-Feldern
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withConfiguration(AutoConfigurations.of(EndpointAutoConfiguration.class,
+                        WebEndpointAutoConfiguration.class))
+                .withBean(JfrRecordingEndpoint.class)
+                .withPropertyValues("management.endpoints.web.exposure.include=jfr",
+                        "app.jfr.settings=default", "app.jfr.max-age=PT1M", "app.jfr.max-size=10MB",
+                        "app.jfr.dump-dir=" + dumpDir, "app.jfr.start-on-startup=false")
+                .run(context -> {
+                    ExposableWebEndpoint jfr = context.getBean(WebEndpointsSupplier.class).getEndpoints().stream()
+                            .filter(endpoint -> endpoint.getEndpointId().toString().equals("jfr"))
+                            .findFirst()
+                            .orElseThrow();
+                    assertThat(jfr.getOperations()).extracting(WebOperation::getRequestPredicate)
+                            .hasSize(4)
+                            .doesNotHaveDuplicates()
+                            .anySatisfy(predicate -> assertThat(predicate.getPath()).isEqualTo("jfr/{label}"));
+                });
+    }
+}
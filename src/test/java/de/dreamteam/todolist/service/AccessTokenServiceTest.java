@@ -0,0 +1,145 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.entity.RevokedUserTokens;
+import de.dreamteam.todolist.model.AuthenticatedUser;
+import de.dreamteam.todolist.model.SecurityMode;
+import de.dreamteam.todolist.repository.RevokedTokenRepository;
+import de.dreamteam.todolist.repository.RevokedUserTokensRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccessTokenServiceTest {
+
+    private static final String KEY_1 = key('1');
+    private static final String KEY_2 = key('2');
+    private static final AuthenticatedUser USER = new AuthenticatedUser(42L, "token-user", "",
+            List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    private RevokedTokenRepository revokedTokenRepository;
+    private RevokedUserTokensRepository revokedUserTokensRepository;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        revokedUserTokensRepository = mock(RevokedUserTokensRepository.class);
+        when(revokedTokenRepository.findActiveTokenIds(any())).thenReturn(List.of());
+        when(revokedUserTokensRepository.findActive(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void issuedTokenAuthenticatesUser() {
+        AccessTokenService service = service("k1=" + KEY_1, "k1", Duration.ofHours(1));
+
+        AccessTokenService.IssuedToken issued = service.issue(USER);
+
+        assertThat(service.authenticate(issued.token())).hasValueSatisfying(principal -> {
+            assertThat(principal.getId()).isEqualTo(USER.getId());
+            assertThat(principal.getUsername()).isEqualTo(USER.getUsername());
+        });
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        AccessTokenService service = service("k1=" + KEY_1, "k1", Duration.ofHours(1));
+        String[] parts = service.issue(USER).token().split("\\.");
+
+        // Andere Benutzer-ID im Payload, Signatur unverändert
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace(":" + USER.getId() + ":", ":1:");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        assertThat(service.authenticate(forged)).isEmpty();
+        assertThat(service.authenticate(parts[0] + "." + parts[1] + ".AAAA")).isEmpty();
+        assertThat(service.authenticate("not-a-token")).isEmpty();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        AccessTokenService service = service("k1=" + KEY_1, "k1", Duration.ofSeconds(-1));
+
+        assertThat(service.authenticate(service.issue(USER).token())).isEmpty();
+    }
+
+    @Test
+    void tokensOfPreviousKeyStayValidUntilKeyIsRemoved() {
+        String oldToken = service("k1=" + KEY_1, "k1", Duration.ofHours(1)).issue(USER).token();
+
+        AccessTokenService rotated = service("k1=" + KEY_1 + ",k2=" + KEY_2, "k2", Duration.ofHours(1));
+        assertThat(rotated.authenticate(oldToken)).isPresent();
+        assertThat(rotated.issue(USER).token()).startsWith("k2.");
+
+        AccessTokenService withoutOldKey = service("k2=" + KEY_2, "k2", Duration.ofHours(1));
+        assertThat(withoutOldKey.authenticate(oldToken)).isEmpty();
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        AccessTokenService service = service("k1=" + KEY_1, "k1", Duration.ofHours(1));
+        String token = service.issue(USER).token();
+        String other = service.issue(USER).token();
+
+        service.revoke(token);
+
+        assertThat(service.authenticate(token)).isEmpty();
+        assertThat(service.authenticate(other)).isPresent();
+    }
+
+    @Test
+    void revokingAllTokensOfUserRejectsOnlyEarlierTokens() throws InterruptedException {
+        AccessTokenService service = service("k1=" + KEY_1, "k1", Duration.ofHours(1));
+        String before = service.issue(USER).token();
+
+        service.revokeAllForUser(USER.getId());
+        // Ausstellungszeit in Millisekunden; ein Token aus derselben Millisekunde gilt als widerrufen
+        Thread.sleep(5);
+        String after = service.issue(USER).token();
+
+        assertThat(service.authenticate(before)).isEmpty();
+        assertThat(service.authenticate(after)).isPresent();
+    }
+
+    @Test
+    void userRevocationFromOtherNodeIsAppliedOnRefresh() {
+        AccessTokenService service = service("k1=" + KEY_1, "k1", Duration.ofHours(1));
+        String token = service.issue(USER).token();
+        assertThat(service.authenticate(token)).isPresent();
+
+        Instant now = Instant.now();
+        when(revokedUserTokensRepository.findActive(any())).thenReturn(List.of(RevokedUserTokens.builder()
+                .userId(USER.getId())
+                .notBefore(now)
+                .expiresAt(now.plus(Duration.ofHours(1)))
+                .build()));
+        service.refreshRevocations();
+
+        assertThat(service.authenticate(token)).isEmpty();
+    }
+
+    private AccessTokenService service(String keys, String activeKeyId, Duration ttl) {
+        AccessTokenService service = new AccessTokenService(revokedTokenRepository, revokedUserTokensRepository);
+        ReflectionTestUtils.setField(service, "mode", SecurityMode.TOKEN);
+        ReflectionTestUtils.setField(service, "keysProperty", keys);
+        ReflectionTestUtils.setField(service, "activeKeyId", activeKeyId);
+        ReflectionTestUtils.setField(service, "ttl", ttl);
+        service.loadKeys();
+        return service;
+    }
+
+    private static String key(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes(StandardCharsets.US_ASCII));
+    }
+}
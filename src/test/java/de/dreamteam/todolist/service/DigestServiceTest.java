@@ -0,0 +1,137 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.entity.EmailOutbox;
+import de.dreamteam.todolist.entity.ToDo;
+import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.DigestFrequency;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.EmailOutboxRepository;
+import de.dreamteam.todolist.repository.ToDoRepository;
+import de.dreamteam.todolist.repository.UserRepository;
+import de.dreamteam.todolist.repository.UserRepository.DigestRecipient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class DigestServiceTest {
+
+    private static final String PREFIX = "digest-user-";
+    private static final int CHUNK_SIZE = 2;
+
+    @Autowired
+    private DigestService digestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<ToDo> toDos = new ArrayList<>();
+    private int originalChunkSize;
+
+    @BeforeEach
+    void setUp() {
+        originalChunkSize = (int) ReflectionTestUtils.getField(digestService, "chunkSize");
+        ReflectionTestUtils.setField(digestService, "chunkSize", CHUNK_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(digestService, "chunkSize", originalChunkSize);
+        emailOutboxRepository.deleteAll(digestEmails());
+        toDoRepository.deleteAll(toDos);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void recipientsArePagedByIdWithoutGapsOrDuplicates() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(user(i, "Name " + i, DigestFrequency.DAILY).getId());
+        }
+        user(5, "Wöchentlich", DigestFrequency.WEEKLY);
+
+        List<Long> paged = new ArrayList<>();
+        Long afterId = 0L;
+        List<DigestRecipient> page;
+        do {
+            page = userRepository.findDigestRecipients(DigestFrequency.DAILY, afterId, Limit.of(CHUNK_SIZE));
+            assertThat(page).hasSizeLessThanOrEqualTo(CHUNK_SIZE);
+            page.stream().map(DigestRecipient::getId).forEach(paged::add);
+            afterId = page.isEmpty() ? afterId : page.getLast().getId();
+        } while (page.size() == CHUNK_SIZE);
+
+        assertThat(paged).isSorted().doesNotHaveDuplicates().containsAll(expected);
+        assertThat(paged).doesNotContain(users.getLast().getId());
+    }
+
+    @Test
+    void everyRecipientWithDueToDosGetsOneEmailAcrossChunks() {
+        LocalDate today = LocalDate.now(ZoneId.of("Europe/Berlin"));
+        for (int i = 0; i < 5; i++) {
+            toDo(user(i, "Name " + i, DigestFrequency.DAILY), "Aufgabe " + i, today);
+        }
+        // Vorname und Titel fehlen: darf den Block der übrigen Empfänger nicht abbrechen
+        toDo(user(5, null, DigestFrequency.DAILY), null, today);
+        user(6, "Ohne Aufgaben", DigestFrequency.DAILY);
+        toDo(user(7, "Wöchentlich", DigestFrequency.WEEKLY), "Später", today);
+
+        digestService.sendDigests(DigestFrequency.DAILY);
+
+        assertThat(digestEmails()).extracting(EmailOutbox::getRecipient).containsExactlyInAnyOrder(
+                email(0), email(1), email(2), email(3), email(4), email(5));
+    }
+
+    private User user(int number, String firstName, DigestFrequency frequency) {
+        User user = userRepository.save(User.builder()
+                .firstName(firstName)
+                .lastName("Digest")
+                .username(PREFIX + number)
+                .email(email(number))
+                .password("secret")
+                .enabled(true)
+                .digestFrequency(frequency)
+                .build());
+        users.add(user);
+        return user;
+    }
+
+    private void toDo(User user, String title, LocalDate endDate) {
+        toDos.add(toDoRepository.save(ToDo.builder()
+                .title(title)
+                .description("Beschreibung")
+                .creator(user.getUsername())
+                .startDate(endDate)
+                .endDate(endDate)
+                .status(ToDoStatus.TODO)
+                .userList(new ArrayList<>(List.of(user)))
+                .build()));
+    }
+
+    private List<EmailOutbox> digestEmails() {
+        return emailOutboxRepository.findAll().stream()
+                .filter(email -> email.getRecipient().startsWith(PREFIX))
+                .toList();
+    }
+
+    private static String email(int number) {
+        return PREFIX + number + "@example.com";
+    }
+}
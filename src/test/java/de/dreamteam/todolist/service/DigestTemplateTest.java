@@ -0,0 +1,82 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.model.DigestFrequency;
+import de.dreamteam.todolist.repository.ToDoRepository.DigestItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DigestTemplateTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    private final DigestTemplate template = DigestTemplate.load(messageSource(), Locale.GERMAN, DigestFrequency.DAILY, 2);
+
+    @Test
+    void splitsOverdueAndDueToDosIntoSections() {
+        String html = template.render("Anna",
+                List.of(item("Alt", TODAY.minusDays(1)), item("Heute", TODAY)),
+                List.of(item("Kapitel 1", TODAY)), TODAY);
+
+        assertThat(html).startsWith("<p>Hallo Anna,</p>")
+                .containsSubsequence("<h3>Überfällig</h3><ul><li>Alt (", "</ul>",
+                        "<h3>Bald fällig</h3><ul><li>Heute (", "</ul>",
+                        "<h3>Lehrplan</h3><ul><li>Kapitel 1 (", "</ul>");
+    }
+
+    @Test
+    void omitsEmptySectionsAndLimitsItems() {
+        String html = template.render("Anna",
+                List.of(item("Eins", TODAY), item("Zwei", TODAY), item("Drei", TODAY)), List.of(), TODAY);
+
+        assertThat(html).doesNotContain("Überfällig", "Lehrplan")
+                .contains("<li>Eins (", "<li>Zwei (", "<li>... und 1 weitere</li>")
+                .doesNotContain("Drei");
+    }
+
+    @Test
+    void escapesNameAndTitle() {
+        String html = template.render("<b>Anna</b>", List.of(item("<script>x</script>", TODAY)), List.of(), TODAY);
+
+        assertThat(html).contains("Hallo &lt;b&gt;Anna&lt;/b&gt;,", "<li>&lt;script&gt;x&lt;/script&gt; (")
+                .doesNotContain("<script>");
+    }
+
+    // Vorname und Titel sind in der Datenbank optional
+    @Test
+    void rendersMissingNameAndTitleAsEmpty() {
+        String html = template.render(null, List.of(item(null, TODAY)), List.of(), TODAY);
+
+        assertThat(html).contains("<p>Hallo ,</p>", "<li> (fällig am ");
+    }
+
+    private static DigestItem item(String title, LocalDate endDate) {
+        return new DigestItem() {
+            @Override
+            public Long getUserId() {
+                return 1L;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public LocalDate getEndDate() {
+                return endDate;
+            }
+        };
+    }
+
+    private static ResourceBundleMessageSource messageSource() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        return messageSource;
+    }
+}
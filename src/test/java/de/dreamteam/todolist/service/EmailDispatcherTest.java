@@ -0,0 +1,168 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.entity.EmailOutbox;
+import de.dreamteam.todolist.model.EmailStatus;
+import de.dreamteam.todolist.repository.EmailOutboxRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Versand aus dem Outbox gegen das eingebettete PostgreSQL, da das Abholen SKIP LOCKED benötigt. Der
+ * Dispatcher ist in den Tests abgeschaltet und wird hier mit einem eigenen Transport angelegt.
+ */
+// Dieselbe Konfiguration wie EndpointPerformanceTest, damit beide Klassen den Kontext und die eingebettete
+// Datenbank teilen
+@SpringBootTest(properties = {
+        "app.rate-limit.enabled=false",
+        "app.search.index-dir=${java.io.tmpdir}/todolist-perf-search-index"
+})
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+        provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class EmailDispatcherTest {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+    private static final Duration LEASE = Duration.ofMillis(500);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final Map<String, EmailDeliveryException> failures = new ConcurrentHashMap<>();
+    private final List<Long> ids = new ArrayList<>();
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        EmailTransport transport = (to, _, _) -> {
+            EmailDeliveryException failure = failures.get(to);
+            if (failure != null) {
+                throw failure;
+            }
+            delivered.add(to);
+        };
+        dispatcher = new EmailDispatcher(emailOutboxRepository, transport, transactionTemplate);
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "threads", 2);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        // Der Test ruft dispatch() selbst auf, der eigene Poll-Thread soll nicht dazwischenkommen
+        ReflectionTestUtils.setField(dispatcher, "pollIntervalMs", Duration.ofHours(1).toMillis());
+        ReflectionTestUtils.setField(dispatcher, "lease", LEASE);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", INITIAL_BACKOFF);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", MAX_BACKOFF);
+        ReflectionTestUtils.setField(dispatcher, "sentRetention", Duration.ofDays(7));
+        dispatcher.startWorkers();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.stopWorkers();
+        emailOutboxRepository.deleteAllById(ids);
+    }
+
+    @Test
+    void failedEmailIsRetriedWithExponentialBackoff() {
+        Long first = enqueue("first-failure@example.com", 0);
+        Long third = enqueue("third-failure@example.com", 2);
+        failures.put("first-failure@example.com", new EmailDeliveryException("SendGrid responded with 503", false));
+        failures.put("third-failure@example.com", new EmailDeliveryException("SendGrid responded with 401", false));
+
+        Instant before = Instant.now();
+        dispatcher.dispatch();
+        Instant after = Instant.now();
+
+        // initial-backoff beim ersten Fehlschlag, ab dem dritten 30 s * 4 = 2 min, begrenzt auf max-backoff
+        assertRetryScheduled(first, 1, before.plus(INITIAL_BACKOFF), after.plus(INITIAL_BACKOFF));
+        assertRetryScheduled(third, 3, before.plus(MAX_BACKOFF), after.plus(MAX_BACKOFF));
+    }
+
+    @Test
+    void emailIsMovedToDeadAfterMaxAttemptsOrPermanentFailure() {
+        Long exhausted = enqueue("exhausted@example.com", MAX_ATTEMPTS - 1);
+        Long rejected = enqueue("rejected@example.com", 0);
+        failures.put("exhausted@example.com", new EmailDeliveryException("SendGrid responded with 503", false));
+        failures.put("rejected@example.com", new EmailDeliveryException("SendGrid responded with 400", true));
+
+        dispatcher.dispatch();
+
+        assertThat(emailOutboxRepository.findById(exhausted)).hasValueSatisfying(email -> {
+            assertThat(email.getStatus()).isEqualTo(EmailStatus.DEAD);
+            assertThat(email.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        });
+        assertThat(emailOutboxRepository.findById(rejected)).hasValueSatisfying(email -> {
+            assertThat(email.getStatus()).isEqualTo(EmailStatus.DEAD);
+            assertThat(email.getAttempts()).isEqualTo(1);
+            assertThat(email.getLastError()).contains("400");
+        });
+
+        failures.clear();
+        dispatcher.dispatch();
+        assertThat(delivered).doesNotContain("exhausted@example.com", "rejected@example.com");
+    }
+
+    @Test
+    void emailLeasedByCrashedNodeIsSentAfterLeaseExpires() throws InterruptedException {
+        Long id = enqueue("leased@example.com", 0);
+        // Ein anderer Knoten hat die Mail reserviert und ist vor dem Versand ausgefallen
+        transactionTemplate.executeWithoutResult(_ -> emailOutboxRepository.lease(List.of(id), Instant.now().plus(LEASE)));
+
+        dispatcher.dispatch();
+        assertThat(delivered).doesNotContain("leased@example.com");
+
+        Thread.sleep(LEASE.plusMillis(100).toMillis());
+        dispatcher.dispatch();
+
+        assertThat(delivered).containsOnlyOnce("leased@example.com");
+        assertThat(emailOutboxRepository.findById(id)).hasValueSatisfying(email -> {
+            assertThat(email.getStatus()).isEqualTo(EmailStatus.SENT);
+            assertThat(email.getSentAt()).isNotNull();
+        });
+    }
+
+    private Long enqueue(String recipient, int attempts) {
+        Instant now = Instant.now();
+        Long id = emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(recipient)
+                .subject("Betreff")
+                .body("<p>Inhalt</p>")
+                .status(EmailStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build()).getId();
+        ids.add(id);
+        return id;
+    }
+
+    // Die Datenbank speichert Mikrosekunden, daher etwas Spielraum an beiden Enden
+    private void assertRetryScheduled(Long id, int attempts, Instant earliest, Instant latest) {
+        assertThat(emailOutboxRepository.findById(id)).hasValueSatisfying(email -> {
+            assertThat(email.getStatus()).isEqualTo(EmailStatus.PENDING);
+            assertThat(email.getAttempts()).isEqualTo(attempts);
+            assertThat(email.getNextAttemptAt()).isBetween(earliest.minusMillis(1), latest.plusMillis(1));
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package de.dreamteam.todolist.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class KeysetCursorTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 42L, 9_007_199_254_740_993L, Long.MAX_VALUE})
+    void decodesWhatItEncoded(long lastId) {
+        String cursor = KeysetCursor.encode(lastId);
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.decode(cursor)).isEqualTo(lastId);
+    }
+
+    // Ohne Cursor beginnt die erste Seite
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = " ")
+    void missingCursorStartsAtTheBeginning(String cursor) {
+        assertThat(KeysetCursor.decode(cursor)).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"%%%", "MTI=MTI", "ab$c"})
+    void malformedCursorIsRejected(String cursor) {
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode(cursor))
+                .withMessageContaining(cursor);
+    }
+
+    @Test
+    void cursorWithoutIdIsRejected() {
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("id=12".getBytes(StandardCharsets.US_ASCII));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode(tampered))
+                .withMessageContaining(tampered);
+    }
+}
@@ -0,0 +1,22 @@
+package de.dreamteam.todolist.service;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SendGridEmailTransportTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {400, 404, 413})
+    void errorsOfTheMailItselfArePermanent(int status) {
+        assertThat(SendGridEmailTransport.isPermanent(status)).isTrue();
+    }
+
+    // Kontingent und Konfiguration betreffen alle Mails, diese bleiben bis zur Behebung im Backoff
+    @ParameterizedTest
+    @ValueSource(ints = {401, 403, 429, 500, 503})
+    void quotaConfigurationAndServerErrorsAreRetried(int status) {
+        assertThat(SendGridEmailTransport.isPermanent(status)).isFalse();
+    }
+}
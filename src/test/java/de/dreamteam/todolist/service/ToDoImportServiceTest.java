@@ -0,0 +1,154 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.controller.payload.ToDoImportResultPayload;
+import de.dreamteam.todolist.entity.ToDo;
+import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.ImportFormat;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.ToDoRepository;
+import de.dreamteam.todolist.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@WithMockUser(username = ToDoImportServiceTest.USERNAME)
+class ToDoImportServiceTest {
+
+    static final String USERNAME = "import-user";
+
+    @Autowired
+    private ToDoImportService toDoImportService;
+
+    @Autowired
+    private ToDoSearchService toDoSearchService;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .firstName("Import")
+                .lastName("Test")
+                .username(USERNAME)
+                .email(USERNAME + "@example.com")
+                .password("secret")
+                .enabled(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<ToDo> imported = importedToDos();
+        imported.forEach(toDo -> toDoSearchService.remove(toDo.getId()));
+        toDoRepository.deleteAll(imported);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void csvRejectsInvalidRowsAndImportsTheRest() throws Exception {
+        ToDoImportResultPayload result = importFile(ImportFormat.CSV, """
+                title,description,startDate,endDate,status
+                Erste,Beschreibung,2025-01-01,2025-01-10,TODO
+                Kaputtes Datum,Beschreibung,2025-13-45,2025-01-10,TODO
+                Dritte,Beschreibung,2025-01-01,2025-01-10,DOING
+                ,Ohne Titel,2025-01-01,2025-01-10,TODO
+                Unbekannter Status,Beschreibung,2025-01-01,2025-01-10,WAITING
+                Sechste,Beschreibung,2025-01-01,2025-01-10,DONE
+                """);
+
+        assertThat(result.rowsRead()).isEqualTo(6);
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.failed()).isEqualTo(3);
+        assertThat(result.errors()).hasSize(3)
+                .anySatisfy(error -> assertThat(error).startsWith("Row 2: "))
+                .anySatisfy(error -> assertThat(error).startsWith("Row 4: title is empty"))
+                .anySatisfy(error -> assertThat(error).startsWith("Row 5: "));
+        assertThat(importedToDos()).extracting(ToDo::getTitle)
+                .containsExactlyInAnyOrder("Erste", "Dritte", "Sechste");
+
+        // Der Block wird nach dem Commit in den Suchindex übernommen, abgelehnte Zeilen nicht
+        toDoSearchService.refresh();
+        assertThat(toDoSearchService.search("Sechste", user.getId(), 10)).hasSize(1);
+        assertThat(toDoSearchService.search("Kaputtes", user.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void jsonArrayRejectsInvalidRowsAndImportsTheRest() throws Exception {
+        ToDoImportResultPayload result = importFile(ImportFormat.JSON, """
+                [
+                  {"title": "Erste", "status": "DOING"},
+                  {"title": "Kaputtes Datum", "startDate": "kein-datum"},
+                  {"title": "Dritte", "curriculumIds": "keine-liste"},
+                  {"title": "Vierte", "startDate": "2025-01-01"}
+                ]
+                """);
+
+        assertThat(result.rowsRead()).isEqualTo(4);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(2);
+        assertThat(result.errors()).hasSize(2)
+                .anySatisfy(error -> assertThat(error).startsWith("Row 2: "))
+                .anySatisfy(error -> assertThat(error).startsWith("Row 3: "));
+        assertThat(importedToDos()).extracting(ToDo::getTitle).containsExactlyInAnyOrder("Erste", "Vierte");
+    }
+
+    @Test
+    void ndjsonRejectsInvalidRowsAndImportsTheRest() throws Exception {
+        ToDoImportResultPayload result = importFile(ImportFormat.JSON, """
+                {"title": "Erste"}
+                {"title": "Unbekannter Status", "status": "WAITING"}
+                {"title": "Dritte", "endDate": "2025-01-10"}
+                {"title": "Falsches Projekt", "projectId": "abc"}
+                {"title": "Fünfte", "status": "DONE"}
+                """);
+
+        assertThat(result.rowsRead()).isEqualTo(5);
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.failed()).isEqualTo(2);
+        assertThat(result.errors()).hasSize(2)
+                .anySatisfy(error -> assertThat(error).startsWith("Row 2: "))
+                .anySatisfy(error -> assertThat(error).startsWith("Row 4: "));
+        assertThat(importedToDos()).extracting(ToDo::getStatus)
+                .containsExactlyInAnyOrder(ToDoStatus.TODO, ToDoStatus.TODO, ToDoStatus.DONE);
+    }
+
+    @Test
+    void ndjsonWithBrokenSyntaxKeepsRowsBeforeTheError() throws Exception {
+        ToDoImportResultPayload result = importFile(ImportFormat.JSON, """
+                {"title": "Erste"}
+                {"title": "Zweite"}
+                {"title": "Abgebrochen",
+                """);
+
+        assertThat(result.rowsRead()).isEqualTo(2);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.errors()).singleElement().asString().startsWith("Row 3: ");
+        assertThat(importedToDos()).extracting(ToDo::getTitle).containsExactlyInAnyOrder("Erste", "Zweite");
+    }
+
+    private ToDoImportResultPayload importFile(ImportFormat format, String content) throws Exception {
+        return toDoImportService.importToDos(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private List<ToDo> importedToDos() {
+        return toDoRepository.findAll().stream()
+                .filter(toDo -> USERNAME.equals(toDo.getCreator()))
+                .toList();
+    }
+}
@@ -0,0 +1,207 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.entity.ToDo;
+import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.ToDoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ToDoSearchServiceTest {
+
+    private static final String TERM = "Suchindextest";
+    private static final User USER = User.builder().id(7L).username("search-user").build();
+
+    @TempDir
+    private Path indexDir;
+
+    private ToDoRepository toDoRepository;
+    private ToDoSearchService toDoSearchService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        toDoRepository = mock(ToDoRepository.class);
+        toDoSearchService = new ToDoSearchService(toDoRepository);
+        ReflectionTestUtils.setField(toDoSearchService, "indexDir", indexDir.resolve("index").toString());
+        ReflectionTestUtils.setField(toDoSearchService, "refreshIntervalMs", 1000L);
+        toDoSearchService.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        toDoSearchService.close();
+    }
+
+    @Test
+    void indexWithoutTransactionIsVisibleAfterRefresh() {
+        toDoSearchService.index(toDo(1L));
+
+        assertThat(search()).containsExactly(1L);
+    }
+
+    // Der Reader wird vom Hintergrund-Thread neu geöffnet, nicht bei jeder Änderung
+    @Test
+    void indexDoesNotRefreshReaderItself() throws Exception {
+        toDoSearchService.index(toDo(1L));
+
+        assertThat(toDoSearchService.search(TERM, USER.getId(), 50)).isEmpty();
+        toDoSearchService.refresh();
+        assertThat(toDoSearchService.search(TERM, USER.getId(), 50)).containsExactly(1L);
+    }
+
+    @Test
+    void indexInTransactionIsVisibleOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        toDoSearchService.index(toDo(1L));
+        assertThat(search()).isEmpty();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(search()).containsExactly(1L);
+    }
+
+    @Test
+    void indexAllInTransactionIsAppliedAfterCommitOnly() {
+        TransactionSynchronizationManager.initSynchronization();
+        toDoSearchService.indexAll(List.of(toDo(1L), toDo(2L)));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(search()).isEmpty();
+
+        TransactionSynchronizationManager.initSynchronization();
+        toDoSearchService.indexAll(List.of(toDo(1L), toDo(2L)));
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(search()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void changesAreDiscardedOnRollback() {
+        toDoSearchService.index(toDo(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        toDoSearchService.index(toDo(2L));
+        toDoSearchService.remove(1L);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(search()).containsExactly(1L);
+    }
+
+    @Test
+    void changesDuringRebuildDoNotWaitAndAreReplayed() throws Exception {
+        toDoSearchService.index(toDo(1L));
+        toDoSearchService.index(toDo(2L));
+        when(toDoRepository.findUserIdsByToDoIds(any())).thenReturn(List.of(userId(1L), userId(2L)));
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            // Der Neuaufbau hat beide ToDos im alten Zustand gelesen; währenddessen wird eines geändert und
+            // eines gelöscht. Beide Änderungen dürfen nicht auf das Ende des Neuaufbaus warten
+            when(toDoRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(_ -> {
+                List<ToDo> snapshot = List.of(toDo(1L), toDo(2L));
+                ToDo renamed = toDo(1L);
+                renamed.setTitle("Umbenannt");
+                executor.submit(() -> toDoSearchService.index(renamed)).get(5, TimeUnit.SECONDS);
+                executor.submit(() -> toDoSearchService.remove(2L)).get(5, TimeUnit.SECONDS);
+                return snapshot;
+            });
+
+            assertThat(toDoSearchService.rebuild()).isEqualTo(2);
+        }
+
+        assertThat(search()).isEmpty();
+        assertThat(toDoSearchService.search("Umbenannt", USER.getId(), 50)).containsExactly(1L);
+        assertThat(toDoSearchService.documentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void searchesSeeOldIndexUntilRebuildIsSwappedIn() throws Exception {
+        toDoSearchService.index(toDo(1L));
+        when(toDoRepository.findUserIdsByToDoIds(any())).thenReturn(List.of());
+        when(toDoRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(_ -> {
+            assertThat(search()).containsExactly(1L);
+            return List.of();
+        });
+
+        assertThat(toDoSearchService.rebuild()).isZero();
+
+        assertThat(search()).isEmpty();
+    }
+
+    @Test
+    void rebuildReplacesStaleDocuments() throws Exception {
+        toDoSearchService.index(toDo(1L));
+        toDoSearchService.index(toDo(2L));
+        when(toDoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(List.of(toDo(2L)));
+        when(toDoRepository.findUserIdsByToDoIds(any())).thenReturn(List.of());
+
+        assertThat(toDoSearchService.rebuild()).isEqualTo(1);
+
+        assertThat(toDoSearchService.documentCount()).isEqualTo(1);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private List<Long> search() {
+        try {
+            toDoSearchService.refresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toDoSearchService.search(TERM, USER.getId(), 50);
+    }
+
+    private static ToDoRepository.ToDoUserId userId(Long toDoId) {
+        return new ToDoRepository.ToDoUserId() {
+            @Override
+            public Long getToDoId() {
+                return toDoId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return USER.getId();
+            }
+        };
+    }
+
+    private static ToDo toDo(Long id) {
+        return ToDo.builder()
+                .id(id)
+                .title(TERM + " " + id)
+                .description("Beschreibung " + id)
+                .status(ToDoStatus.TODO)
+                .userList(new ArrayList<>(List.of(USER)))
+                .build();
+    }
+}
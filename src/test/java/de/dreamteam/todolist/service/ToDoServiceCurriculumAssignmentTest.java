@@ -0,0 +1,188 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.controller.payload.UpdateToDoPayload;
+import de.dreamteam.todolist.entity.Curriculum;
+import de.dreamteam.todolist.entity.ToDo;
+import de.dreamteam.todolist.entity.ToDoCurriculum;
+import de.dreamteam.todolist.entity.User;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.CurriculumRepository;
+import de.dreamteam.todolist.repository.ToDoCurriculumRepository;
+import de.dreamteam.todolist.repository.ToDoRepository;
+import de.dreamteam.todolist.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Abgleich der Lehrplan-Verknüpfungen in ToDoService.assignToCurriculum. Bestehende Verknüpfungen
+ * bekommen eigene Daten, damit auffällt, wenn sie gelöscht und mit den Daten des ToDos neu angelegt werden.
+ */
+@SpringBootTest
+@Transactional
+class ToDoServiceCurriculumAssignmentTest {
+
+    private static final LocalDate TODO_START = LocalDate.of(2025, 3, 1);
+    private static final LocalDate TODO_END = LocalDate.of(2025, 3, 31);
+    private static final LocalDate LINK_START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate LINK_END = LocalDate.of(2025, 1, 15);
+
+    @Autowired
+    private ToDoService toDoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CurriculumRepository curriculumRepository;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private ToDoCurriculumRepository toDoCurriculumRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ToDo toDo;
+    private Long a;
+    private Long b;
+    private Long c;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(newUser("curriculum-assignment-user"));
+        toDo = toDoRepository.save(ToDo.builder()
+                .title("Aufgabe")
+                .description("Beschreibung")
+                .creator(user.getUsername())
+                .startDate(TODO_START)
+                .endDate(TODO_END)
+                .status(ToDoStatus.TODO)
+                .userList(new ArrayList<>(List.of(user)))
+                .build());
+        // Ein Lehrplan gehört genau einem Benutzer, daher pro Lehrplan ein eigener Benutzer
+        a = curriculum("A");
+        b = curriculum("B");
+        c = curriculum("C");
+    }
+
+    @Test
+    void addsMissingLinksWithTheDatesOfTheToDo() {
+        Map<Long, Long> before = link(a);
+
+        assign(a, b);
+
+        assertThat(links()).extracting(this::curriculumId, ToDoCurriculum::getStartDate, ToDoCurriculum::getEndDate)
+                .containsExactlyInAnyOrder(tuple(a, LINK_START, LINK_END), tuple(b, TODO_START, TODO_END));
+        assertThat(linkIds()).containsAllEntriesOf(before);
+    }
+
+    @Test
+    void removesOnlyLinksThatAreNoLongerRequested() {
+        Map<Long, Long> before = link(a, b);
+
+        assign(a);
+
+        assertThat(links()).extracting(this::curriculumId, ToDoCurriculum::getStartDate, ToDoCurriculum::getEndDate)
+                .containsExactly(tuple(a, LINK_START, LINK_END));
+        assertThat(linkIds()).containsEntry(a, before.get(a));
+    }
+
+    @Test
+    void addsAndRemovesInOneCall() {
+        Map<Long, Long> before = link(a, b);
+
+        assign(b, c);
+
+        assertThat(links()).extracting(this::curriculumId, ToDoCurriculum::getStartDate, ToDoCurriculum::getEndDate)
+                .containsExactlyInAnyOrder(tuple(b, LINK_START, LINK_END), tuple(c, TODO_START, TODO_END));
+        assertThat(linkIds()).containsEntry(b, before.get(b));
+    }
+
+    @Test
+    void leavesUnchangedLinksUntouched() {
+        Map<Long, Long> before = link(a, b);
+
+        assign(b, a);
+
+        assertThat(links()).extracting(this::curriculumId, ToDoCurriculum::getStartDate, ToDoCurriculum::getEndDate)
+                .containsExactlyInAnyOrder(tuple(a, LINK_START, LINK_END), tuple(b, LINK_START, LINK_END));
+        assertThat(linkIds()).isEqualTo(before);
+    }
+
+    @Test
+    void linksCurriculumListedTwiceOnlyOnce() {
+        Map<Long, Long> before = link(a);
+
+        assign(a, a, b, b);
+
+        assertThat(links()).extracting(this::curriculumId, ToDoCurriculum::getStartDate, ToDoCurriculum::getEndDate)
+                .containsExactlyInAnyOrder(tuple(a, LINK_START, LINK_END), tuple(b, TODO_START, TODO_END));
+        assertThat(linkIds()).containsAllEntriesOf(before);
+    }
+
+    private void assign(Long... curriculumIds) {
+        toDoService.assignToCurriculum(toDo, new UpdateToDoPayload(toDo.getId(), toDo.getTitle(),
+                toDo.getDescription(), TODO_END, TODO_START, ToDoStatus.TODO, null, List.of(curriculumIds), null));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Legt Verknüpfungen mit eigenen Daten an und liefert deren IDs je Lehrplan
+    private Map<Long, Long> link(Long... curriculumIds) {
+        for (Long curriculumId : curriculumIds) {
+            toDoCurriculumRepository.save(ToDoCurriculum.builder()
+                    .toDo(toDo)
+                    .curriculum(curriculumRepository.getReferenceById(curriculumId))
+                    .startDate(LINK_START)
+                    .endDate(LINK_END)
+                    .build());
+        }
+        entityManager.flush();
+        return linkIds();
+    }
+
+    private List<ToDoCurriculum> links() {
+        return toDoCurriculumRepository.findAll().stream()
+                .filter(link -> link.getToDo().getId().equals(toDo.getId()))
+                .toList();
+    }
+
+    private Map<Long, Long> linkIds() {
+        return links().stream().collect(Collectors.toMap(this::curriculumId, ToDoCurriculum::getId));
+    }
+
+    private Long curriculumId(ToDoCurriculum link) {
+        return link.getCurriculum().getId();
+    }
+
+    private Long curriculum(String title) {
+        User owner = userRepository.save(newUser("curriculum-owner-" + title));
+        return curriculumRepository.save(Curriculum.builder().title("Lehrplan " + title).user(owner).build()).getId();
+    }
+
+    private static User newUser(String username) {
+        return User.builder()
+                .firstName("Max")
+                .lastName("Mustermann")
+                .username(username)
+                .email(username + "@example.com")
+                .password("secret")
+                .enabled(true)
+                .build();
+    }
+}
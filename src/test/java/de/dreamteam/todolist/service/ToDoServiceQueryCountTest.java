@@ -0,0 +1,141 @@
+package de.dreamteam.todolist.service;
+
+import de.dreamteam.todolist.controller.payload.UserTodoPayload;
+import de.dreamteam.todolist.entity.*;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class ToDoServiceQueryCountTest {
+
+    private static final String USERNAME = "query-count-user";
+
+    @Autowired
+    private ToDoService toDoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private CurriculumRepository curriculumRepository;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private ToDoCurriculumRepository toDoCurriculumRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Project project;
+    private List<Curriculum> curriculums;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(newUser(USERNAME));
+        project = projectRepository.save(Project.builder()
+                .title("Projekt")
+                .description("Beschreibung")
+                .owner(user)
+                .build());
+        // Ein Lehrplan gehört genau einem Benutzer, daher pro Lehrplan ein eigener Benutzer
+        curriculums = List.of(
+                curriculumRepository.save(Curriculum.builder().title("Lehrplan A").user(user).build()),
+                curriculumRepository.save(Curriculum.builder().title("Lehrplan B").user(userRepository.save(newUser("curriculum-owner"))).build())
+        );
+    }
+
+    @Test
+    @WithMockUser(username = USERNAME)
+    void getAllToDosUsesConstantNumberOfQueries() {
+        seedToDos(2);
+        AtomicReference<List<UserTodoPayload>> result = new AtomicReference<>();
+        long statementsForFewToDos = countStatements(() -> result.set(toDoService.getAllToDos()));
+        assertThat(result.get()).hasSize(2);
+
+        seedToDos(30);
+        long statementsForManyToDos = countStatements(() -> result.set(toDoService.getAllToDos()));
+        assertThat(result.get()).hasSize(32);
+        assertThat(result.get()).allSatisfy(payload -> {
+            assertThat(payload.projectId()).isEqualTo(project.getId());
+            assertThat(payload.curriculumIds()).containsExactly(curriculums.get(0).getId(), curriculums.get(1).getId());
+        });
+
+        // Benutzer laden + eine Projektionsabfrage, unabhängig von der Anzahl der ToDos
+        assertThat(statementsForManyToDos).isEqualTo(statementsForFewToDos).isLessThanOrEqualTo(2);
+    }
+
+    private void seedToDos(int count) {
+        for (int i = 0; i < count; i++) {
+            ToDo toDo = toDoRepository.save(ToDo.builder()
+                    .title("Aufgabe " + i)
+                    .description("Beschreibung " + i)
+                    .creator(USERNAME)
+                    .startDate(LocalDate.now())
+                    .endDate(LocalDate.now().plusDays(i))
+                    .status(ToDoStatus.TODO)
+                    .project(project)
+                    .userList(new ArrayList<>(List.of(user)))
+                    .build());
+            for (Curriculum curriculum : curriculums) {
+                toDoCurriculumRepository.save(ToDoCurriculum.builder()
+                        .toDo(toDo)
+                        .curriculum(curriculum)
+                        .startDate(toDo.getStartDate())
+                        .endDate(toDo.getEndDate())
+                        .build());
+            }
+        }
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        // Jede Messung als eigene Anfrage, sonst liefert das request-scoped CurrentUser den Benutzer der vorigen
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static User newUser(String username) {
+        return User.builder()
+                .firstName("Max")
+                .lastName("Mustermann")
+                .username(username)
+                .email(username + "@example.com")
+                .password("secret")
+                .enabled(true)
+                .build();
+    }
+}
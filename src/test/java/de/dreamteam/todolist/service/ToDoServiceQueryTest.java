@@ -0,0 +1,294 @@
+package de.dreamteam.todolist.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.dreamteam.todolist.controller.payload.CursorPagePayload;
+import de.dreamteam.todolist.controller.payload.ToDoQueryPayload;
+import de.dreamteam.todolist.controller.payload.UserTodoPayload;
+import de.dreamteam.todolist.entity.*;
+import de.dreamteam.todolist.model.ToDoSortKey;
+import de.dreamteam.todolist.model.ToDoStatus;
+import de.dreamteam.todolist.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Keyset-Paginierung, Filterabfrage und NDJSON-Export des ToDoService gegen die Testdatenbank.
+ */
+@SpringBootTest
+@Transactional
+@WithMockUser(username = ToDoServiceQueryTest.USERNAME)
+class ToDoServiceQueryTest {
+
+    static final String USERNAME = "query-user";
+    // Entspricht EXPORT_FLUSH_INTERVAL im ToDoService
+    private static final int EXPORT_CHUNK = 500;
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 1);
+
+    @Autowired
+    private ToDoService toDoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private CurriculumRepository curriculumRepository;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private ToDoCurriculumRepository toDoCurriculumRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private User otherUser;
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(newUser(USERNAME));
+        otherUser = userRepository.save(newUser("other-query-user"));
+        project = projectRepository.save(Project.builder()
+                .title("Projekt")
+                .description("Beschreibung")
+                .owner(user)
+                .build());
+    }
+
+    @Test
+    void pagesWalkAllToDosOnceInIdOrderDespiteEqualSortKeys() {
+        // Gleicher Titel, gleiche Daten und gleicher Status, nur die ID unterscheidet die Zeilen
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(toDo(user, "Gleich", DAY, ToDoStatus.TODO, null).getId());
+            toDo(otherUser, "Gleich", DAY, ToDoStatus.TODO, null);
+        }
+
+        List<Long> paged = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPagePayload<UserTodoPayload> page = toDoService.getToDoPage(cursor, 2);
+            page.items().forEach(item -> paged.add(item.id()));
+            pageSizes.add(page.items().size());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(paged).isEqualTo(ids);
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void fullLastPageHasNoNextCursor() {
+        for (int i = 0; i < 4; i++) {
+            toDo(user, "Aufgabe " + i, DAY, ToDoStatus.TODO, null);
+        }
+
+        CursorPagePayload<UserTodoPayload> first = toDoService.getToDoPage(null, 2);
+        CursorPagePayload<UserTodoPayload> last = toDoService.getToDoPage(first.nextCursor(), 2);
+
+        assertThat(first.nextCursor()).isNotNull();
+        assertThat(last.items()).hasSize(2);
+        assertThat(last.nextCursor()).isNull();
+        assertThat(toDoService.getToDoPage(KeysetCursor.encode(last.items().getLast().id()), 2).items()).isEmpty();
+    }
+
+    @Test
+    void malformedOrTamperedCursorIsRejected() {
+        String notAnId = Base64.getUrlEncoder().encodeToString("1 OR 1=1".getBytes(StandardCharsets.US_ASCII));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> toDoService.getToDoPage("%%%", 10));
+        assertThatIllegalArgumentException().isThrownBy(() -> toDoService.getToDoPage(notAnId, 10));
+    }
+
+    // Der Cursor ist nur eine Position, eine fremde ID darin gibt keine fremden ToDos preis
+    @Test
+    void cursorWithForeignIdOnlyReturnsOwnToDos() {
+        ToDo foreign = toDo(otherUser, "Fremd", DAY, ToDoStatus.TODO, null);
+        ToDo own = toDo(user, "Eigen", DAY, ToDoStatus.TODO, null);
+
+        CursorPagePayload<UserTodoPayload> page = toDoService.getToDoPage(KeysetCursor.encode(foreign.getId() - 1), 10);
+
+        assertThat(page.items()).extracting(UserTodoPayload::id).containsExactly(own.getId());
+    }
+
+    @Test
+    void filtersCombineStatusDateRangeAndProject() {
+        ToDo match = toDo(user, "Treffer", DAY.plusDays(3), ToDoStatus.DOING, project);
+        toDo(user, "Falscher Status", DAY.plusDays(3), ToDoStatus.DONE, project);
+        toDo(user, "Zu spät", DAY.plusDays(30), ToDoStatus.DOING, project);
+        toDo(user, "Ohne Projekt", DAY.plusDays(3), ToDoStatus.DOING, null);
+        toDo(otherUser, "Fremd", DAY.plusDays(3), ToDoStatus.DOING, project);
+
+        List<UserTodoPayload> result = toDoService.findToDos(query(Set.of(ToDoStatus.DOING, ToDoStatus.TODO),
+                DAY, DAY.plusDays(7), project.getId(), null, null, null, null));
+
+        assertThat(result).extracting(UserTodoPayload::id).containsExactly(match.getId());
+    }
+
+    @Test
+    void curriculumFilterListsEachToDoOnce() {
+        User owner = userRepository.save(newUser("query-curriculum-owner"));
+        Curriculum curriculum = curriculumRepository.save(Curriculum.builder().title("Lehrplan").user(owner).build());
+        ToDo linked = toDo(user, "Im Lehrplan", DAY, ToDoStatus.TODO, null);
+        toDo(user, "Nicht im Lehrplan", DAY, ToDoStatus.TODO, null);
+        // Zwei Verknüpfungen zum selben Lehrplan dürfen das ToDo nicht verdoppeln
+        link(linked, curriculum);
+        link(linked, curriculum);
+
+        List<UserTodoPayload> result = toDoService.findToDos(query(null, null, null, null,
+                curriculum.getId(), null, null, null));
+
+        assertThat(result).extracting(UserTodoPayload::id).containsExactly(linked.getId());
+        assertThat(result.getFirst().curriculumIds()).containsOnly(curriculum.getId());
+    }
+
+    @Test
+    void sortsDescendingAndBreaksTiesByIdAscending() {
+        ToDo late = toDo(user, "Spät", DAY.plusDays(2), ToDoStatus.TODO, null);
+        ToDo tieA = toDo(user, "Gleich A", DAY, ToDoStatus.TODO, null);
+        ToDo tieB = toDo(user, "Gleich B", DAY, ToDoStatus.TODO, null);
+        ToDo early = toDo(user, "Früh", DAY.minusDays(2), ToDoStatus.TODO, null);
+
+        List<UserTodoPayload> byEndDate = toDoService.findToDos(query(null, null, null, null, null,
+                ToDoSortKey.END_DATE, Sort.Direction.DESC, null));
+        List<UserTodoPayload> limited = toDoService.findToDos(query(null, null, null, null, null,
+                ToDoSortKey.END_DATE, Sort.Direction.DESC, 2));
+
+        assertThat(byEndDate).extracting(UserTodoPayload::id)
+                .containsExactly(late.getId(), tieA.getId(), tieB.getId(), early.getId());
+        assertThat(limited).extracting(UserTodoPayload::id).containsExactly(late.getId(), tieA.getId());
+    }
+
+    @Test
+    void sortsByTitleWithStatusFilter() {
+        ToDo b = toDo(user, "B", DAY, ToDoStatus.TODO, null);
+        ToDo a = toDo(user, "A", DAY, ToDoStatus.TODO, null);
+        toDo(user, "C", DAY, ToDoStatus.DONE, null);
+
+        List<UserTodoPayload> result = toDoService.findToDos(query(Set.of(ToDoStatus.TODO), null, null, null, null,
+                ToDoSortKey.TITLE, null, null));
+
+        assertThat(result).extracting(UserTodoPayload::id).containsExactly(a.getId(), b.getId());
+    }
+
+    @Test
+    void exportWritesOneLinePerToDoAndClearsThePersistenceContextPerChunk() throws Exception {
+        User owner = userRepository.save(newUser("export-curriculum-owner"));
+        Curriculum curriculum = curriculumRepository.save(Curriculum.builder().title("Lehrplan").user(owner).build());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 2 * EXPORT_CHUNK + 1; i++) {
+            ToDo toDo = toDo(user, "Export " + i, DAY, ToDoStatus.TODO, project);
+            if (i % 100 == 0) {
+                link(toDo, curriculum);
+            }
+            ids.add(toDo.getId());
+        }
+        toDo(otherUser, "Fremd", DAY, ToDoStatus.TODO, project);
+        entityManager.flush();
+        entityManager.clear();
+
+        Session session = entityManager.unwrap(Session.class);
+        List<Integer> managedEntitiesAtFlush = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                managedEntitiesAtFlush.add(session.getStatistics().getEntityCount());
+            }
+        };
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        toDoService.exportToDos(user.getId(), out);
+
+        List<UserTodoPayload> lines = out.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> read(line))
+                .toList();
+        assertThat(lines).extracting(UserTodoPayload::id).isEqualTo(ids);
+        assertThat(lines).filteredOn(line -> !line.curriculumIds().isEmpty()).hasSize(11)
+                .allSatisfy(line -> assertThat(line.curriculumIds()).containsExactly(curriculum.getId()));
+        // Drei Blöcke: nie mehr als ein Block (plus Projekt und Besitzer) im Persistence Context
+        assertThat(managedEntitiesAtFlush).hasSize(4)
+                .allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(EXPORT_CHUNK + 2));
+        // Eine Abfrage für den Cursor und eine je Block für die Lehrplan-IDs
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    private UserTodoPayload read(String line) {
+        try {
+            return objectMapper.readValue(line, UserTodoPayload.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(line, e);
+        }
+    }
+
+    private ToDo toDo(User owner, String title, LocalDate endDate, ToDoStatus status, Project project) {
+        return toDoRepository.save(ToDo.builder()
+                .title(title)
+                .description("Beschreibung")
+                .creator(owner.getUsername())
+                .startDate(DAY)
+                .endDate(endDate)
+                .status(status)
+                .project(project)
+                .userList(new ArrayList<>(List.of(owner)))
+                .build());
+    }
+
+    private void link(ToDo toDo, Curriculum curriculum) {
+        toDoCurriculumRepository.save(ToDoCurriculum.builder()
+                .toDo(toDo)
+                .curriculum(curriculum)
+                .startDate(toDo.getStartDate())
+                .endDate(toDo.getEndDate())
+                .build());
+    }
+
+    private static ToDoQueryPayload query(Set<ToDoStatus> status, LocalDate endFrom, LocalDate endTo, Long projectId,
+                                          Long curriculumId, ToDoSortKey sort, Sort.Direction direction, Integer size) {
+        return new ToDoQueryPayload(status, null, null, endFrom, endTo, projectId, curriculumId, sort, direction, size);
+    }
+
+    private static User newUser(String username) {
+        return User.builder()
+                .firstName("Max")
+                .lastName("Mustermann")
+                .username(username)
+                .email(username + "@example.com")
+                .password("secret")
+                .enabled(true)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package de.dreamteam.todolist.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketTest {
+
+    // 5 Tokens je Minute: alle 12 s kommt ein Token hinzu
+    private static final int CAPACITY = 5;
+    private static final Duration PERIOD = Duration.ofMinutes(1);
+    private static final long REFILL_NANOS = Duration.ofSeconds(12).toNanos();
+    private static final long START = 1_000_000_000L;
+
+    @Test
+    void fullBucketAllowsCapacityRequestsAtOnce() {
+        TokenBucket bucket = new TokenBucket(CAPACITY, PERIOD, START);
+
+        for (int i = 0; i < CAPACITY; i++) {
+            assertThat(bucket.tryConsume(START)).isZero();
+        }
+        assertThat(bucket.tryConsume(START)).isCloseTo(REFILL_NANOS, within(1L));
+    }
+
+    @Test
+    void waitTimeShrinksWhileBucketRefills() {
+        TokenBucket bucket = emptyBucket();
+
+        long halfway = START + REFILL_NANOS / 2;
+        assertThat(bucket.tryConsume(halfway)).isCloseTo(REFILL_NANOS / 2, within(1L));
+        // Ein abgelehnter Versuch verbraucht nichts, die Wartezeit bleibt auf den nächsten Token bezogen
+        assertThat(bucket.tryConsume(halfway)).isCloseTo(REFILL_NANOS / 2, within(1L));
+    }
+
+    @Test
+    void bucketRefillsContinuously() {
+        TokenBucket bucket = emptyBucket();
+
+        long afterOneToken = START + REFILL_NANOS + 1;
+        assertThat(bucket.tryConsume(afterOneToken)).isZero();
+        assertThat(bucket.tryConsume(afterOneToken)).isCloseTo(REFILL_NANOS - 1, within(1L));
+
+        long afterTwoMoreTokens = afterOneToken + 2 * REFILL_NANOS + 1;
+        assertThat(bucket.tryConsume(afterTwoMoreTokens)).isZero();
+        assertThat(bucket.tryConsume(afterTwoMoreTokens)).isZero();
+        assertThat(bucket.tryConsume(afterTwoMoreTokens)).isPositive();
+    }
+
+    @Test
+    void refillIsCappedAtCapacity() {
+        TokenBucket bucket = emptyBucket();
+
+        long muchLater = START + 10 * PERIOD.toNanos();
+        for (int i = 0; i < CAPACITY; i++) {
+            assertThat(bucket.tryConsume(muchLater)).isZero();
+        }
+        assertThat(bucket.tryConsume(muchLater)).isCloseTo(REFILL_NANOS, within(1L));
+    }
+
+    // Aufrufe aus anderen Threads können mit etwas älterem nanoTime ankommen
+    @Test
+    void earlierTimestampDoesNotAddTokens() {
+        TokenBucket bucket = emptyBucket();
+
+        assertThat(bucket.tryConsume(START - PERIOD.toNanos())).isCloseTo(REFILL_NANOS, within(1L));
+    }
+
+    private static TokenBucket emptyBucket() {
+        TokenBucket bucket = new TokenBucket(CAPACITY, PERIOD, START);
+        for (int i = 0; i < CAPACITY; i++) {
+            bucket.tryConsume(START);
+        }
+        return bucket;
+    }
+}